@@ -0,0 +1,29 @@
+package jgc;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to read a word list and build each dictionary engine from it.  Every call builds a new dictionary,
+ * bypassing the shared one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DictionaryBenchmark {
+
+    @Param({"S", "M", "L", "XL", "XXL"})
+    Dictionary.DictSize size;
+
+    @Param({"TRIE", "FLAT", "DAWG"})
+    Dictionary.DictEngine engine;
+
+    @Benchmark
+    public Dictionary load() {
+        return Dictionary.load(size, engine);
+    }
+}
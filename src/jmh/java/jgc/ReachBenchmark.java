@@ -0,0 +1,56 @@
+package jgc;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * boardReach() on every prefix of every word of a solved board, as if each word were being typed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReachBenchmark {
+
+    @Param({"4", "5"})
+    int n;
+
+    @Param({"false", "true"})
+    boolean extraAssist;
+
+    Boggle boggle;
+    String[] prefixes;
+    int next;
+
+    @Setup
+    public void setup() {
+        boggle = SolveBenchmark.newBoggle(n, Dictionary.DictSize.M, Dictionary.DictEngine.TRIE, Boggle.Solver.BOARD);
+        boggle.extraAssist = extraAssist;
+        boggle.fillBoard();
+        boggle.solve();
+        List<String> list = new ArrayList<>();
+        for (String word : boggle.solutionList) {
+            for (int k = 1; k <= word.length(); k++) {
+                list.add(word.substring(0, k));
+            }
+        }
+        list.add("zzz");    // a miss
+        prefixes = list.toArray(new String[0]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        boggle.threadPool.shutdown();
+        boggle.close();
+    }
+
+    @Benchmark
+    public Object boardReach() {
+        return boggle.boardReach(prefixes[next++ % prefixes.length]);
+    }
+}
@@ -0,0 +1,116 @@
+package jgc;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boggle.solve() on fixed boards of each size, and BoardSolver.solve() alone, or scored by a BoardSolver.Scorer.
+ * The boards are rolled from the standard dice with a fixed seed, so every run solves the same ones.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolveBenchmark {
+
+    static final long SEED = 1972;
+    static final int BOARDS = 16;
+
+    @Param({"3", "4", "5", "6", "7"})
+    int n;
+
+    @Param({"M"})
+    Dictionary.DictSize size;
+
+    @Param({"TRIE", "FLAT", "DAWG"})
+    Dictionary.DictEngine engine;
+
+    @Param({"BOARD", "BITBOARD", "FORKJOIN"})
+    Boggle.Solver solver;
+
+    @Param({"100"})
+    int threshold;      // for atLeast()
+
+    Boggle boggle;
+    BoardSolver boardSolver;
+    BoardSolver.Scorer scorer;
+    char[][][] boards;
+    char[][] cells;
+    int next;
+
+    /**
+     * A headless Boggle, as the tests make.
+     */
+    static Boggle newBoggle(int n, Dictionary.DictSize size, Dictionary.DictEngine engine, Boggle.Solver solver) {
+        Boggle b = new Boggle();
+        b.N = n;
+        b.logLevel = "warn";
+        b.wordLen = 3;
+        b.numThreads = 3;
+        b.cacheSize = 0;    // always solve
+        b.dictSize = size;
+        b.dictEngine = engine;
+        b.solver = solver;
+        b.rand = new Random(SEED);
+        b.init(false);
+        return b;
+    }
+
+    @Setup
+    public void setup() {
+        boggle = newBoggle(n, size, engine, solver);
+        boardSolver = new BoardSolver(boggle.dict, boggle.wordLen, solver);
+        scorer = boardSolver.new Scorer();
+        boards = new char[BOARDS][][];
+        cells = new char[BOARDS][];
+        for (int i = 0; i < BOARDS; i++) {
+            boggle.fillBoard();
+            boards[i] = boggle._board;
+            cells[i] = new char[n * n];
+            for (int j = 0; j < n; j++) {
+                System.arraycopy(boards[i][j], 0, cells[i], j * n, n);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        boggle.threadPool.shutdown();
+        boggle.close();
+    }
+
+    @Benchmark
+    public Object solve() {
+        boggle._board = boards[next++ % BOARDS];
+        boggle.solve();
+        return boggle.solutionList;
+    }
+
+    /**
+     * The dictionary walk on its own: one board on this thread, with no thread pool or word list.
+     */
+    @Benchmark
+    public int boardSolver() {
+        return boardSolver.solve(boards[next++ % BOARDS]).getCount();
+    }
+
+    /**
+     * The whole scoring walk, with no Solution.
+     */
+    @Benchmark
+    public int score() {
+        return scorer.score(cells[next++ % BOARDS]);
+    }
+
+    /**
+     * Scorer.atLeast() on the same boards, whose walk stops at the threshold.
+     */
+    @Benchmark
+    public boolean atLeast() {
+        return scorer.atLeast(cells[next++ % BOARDS], threshold, BoardGenerator.Objective.SCORE);
+    }
+}
@@ -0,0 +1,48 @@
+package jgc;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trie.findNode() on a mix of whole words, prefixes and misses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TrieBenchmark {
+
+    @Param({"S", "M", "XXL"})
+    Dictionary.DictSize size;
+
+    Trie trie;
+    String[] queries;
+    int next;
+
+    @Setup
+    public void setup() {
+        String[] words = Dictionary.load(size, Dictionary.DictEngine.TRIE).getWords();
+        trie = new Trie();
+        for (String w : words) {
+            trie.insert(w);
+        }
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < words.length; i += 97) {
+            String w = words[i];
+            list.add(w);
+            list.add(w.substring(0, (w.length() + 1) / 2));
+            list.add(w + "zq");
+        }
+        queries = list.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public TrieNode findNode() {
+        return trie.findNode(queries[next++ % queries.length]);
+    }
+}
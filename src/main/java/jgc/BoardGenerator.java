@@ -0,0 +1,236 @@
+package jgc;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Searches for high scoring boards by simulated annealing.  Each chain starts from a random roll and tries
+ * small changes: swapping two dice, or rolling one die again.  A change is kept if the board gets better, and
+ * sometimes even if it gets worse, less often as the chain cools down, so a chain can climb out of a poor
+ * local maximum early on.
+ *
+ * With free letters, any cell may hold any letter found on the dice, in proportion to how often it's found.
+ *
+ * Each chain runs on its own thread with its own BoardSolver.Scorer, so boards are scored without allocating.
+ */
+public class BoardGenerator {
+
+    private static final Logger log = LogManager.getLogger(BoardGenerator.class);
+
+    static final double START_TEMP = 20.0;
+    static final double END_TEMP = 0.2;
+
+    /**
+     * SCORE - total score of all words on the board
+     * WORDS - number of words on the board
+     */
+    public enum Objective { SCORE, WORDS }
+
+    /**
+     * A board found, in compact string format.
+     */
+    public static class Result {
+        String board;
+        int score;
+        int count;
+
+        public String getBoard() {
+            return board;
+        }
+
+        public int getScore() {
+            return score;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    private final BoardSolver solver;
+    private final char[][] dice;
+    private final Objective objective;
+    private final boolean freeLetters;
+    private final char[] letters;     // every face of every die, for free letters
+
+    /**
+     * @param solver      Solver with the dictionary and minimum word length to use
+     * @param dice        One die per cell of the board, see Boggle.buildDice()
+     * @param objective   What to maximize
+     * @param freeLetters If true, ignore which die a letter is on
+     */
+    public BoardGenerator(BoardSolver solver, char[][] dice, Objective objective, boolean freeLetters) {
+        int n = (int) Math.sqrt(dice.length);
+        if (n * n != dice.length || n < 3 || n > 7) {
+            throw new IllegalArgumentException("need one die for each cell of a 3x3 to 7x7 board");
+        }
+        this.solver = solver;
+        this.dice = dice;
+        this.objective = objective;
+        this.freeLetters = freeLetters;
+        StringBuilder sb = new StringBuilder();
+        for (char[] die : dice) {
+            sb.append(die);
+        }
+        this.letters = sb.toString().toCharArray();
+    }
+
+    /**
+     * Runs the chains on the pool and returns the best distinct boards found.  Rotations and reflections of a
+     * board count as the same board.
+     *
+     * @param pool
+     * @param chains Number of chains, usually the number of threads in the pool
+     * @param steps  Changes tried by each chain
+     * @param top    Number of boards to return
+     * @param seed   Seed of the first chain, each chain gets its own
+     * @return Best boards, best first
+     */
+    public List<Result> generate(ExecutorService pool, int chains, long steps, int top, long seed)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        List<Callable<List<Result>>> calls = new ArrayList<>(chains);
+        for (int c = 0; c < chains; c++) {
+            final long chainSeed = seed + c;
+            calls.add(() -> anneal(new Random(chainSeed), steps, top));
+        }
+        Map<String, Result> best = new LinkedHashMap<>();
+        try {
+            for (Future<List<Result>> f : pool.invokeAll(calls)) {
+                for (Result r : f.get()) {
+                    best.putIfAbsent(SolutionCache.canonical(toBoard(r.board)), r);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("generate failed", e.getCause());
+        }
+        long nanos = System.nanoTime() - start;
+        log.info("boards scored: " + (chains * steps) + ", boards/sec: " +
+                (long) (chains * steps * 1.0e9 / Math.max(nanos, 1)));
+
+        List<Result> results = new ArrayList<>(best.values());
+        results.sort(Comparator.comparingInt(this::value).reversed());
+        return results.subList(0, Math.min(top, results.size()));
+    }
+
+    static char[][] toBoard(String cells) {
+        int n = (int) Math.sqrt(cells.length());
+        char[][] board = new char[n][];
+        for (int i = 0; i < n; i++) {
+            board[i] = cells.substring(i * n, i * n + n).toCharArray();
+        }
+        return board;
+    }
+
+    private int value(Result r) {
+        return (objective == Objective.SCORE) ? r.score : r.count;
+    }
+
+    /**
+     * One annealing chain.
+     *
+     * @return The best boards seen by this chain
+     */
+    List<Result> anneal(Random rand, long steps, int top) {
+        BoardSolver.Scorer scorer = solver.new Scorer();
+        int cells = dice.length;
+        int[] order = new int[cells];       // die in each cell
+        char[] board = new char[cells];
+        for (int i = 0; i < cells; i++) {
+            order[i] = i;
+        }
+        for (int i = cells - 1; i > 0; i--) {
+            swap(order, board, i, rand.nextInt(i + 1));
+        }
+        for (int i = 0; i < cells; i++) {
+            board[i] = roll(rand, order[i]);
+        }
+
+        List<Result> best = new ArrayList<>();
+        int current = evaluate(scorer, board);
+        keep(best, board, scorer, top);
+        double cooling = Math.pow(END_TEMP / START_TEMP, 1.0 / Math.max(steps, 1));
+        double temp = START_TEMP;
+        for (long step = 0; step < steps; step++, temp *= cooling) {
+            int a = rand.nextInt(cells);
+            int b = -1;
+            char old = board[a];
+            if (rand.nextBoolean()) {
+                b = rand.nextInt(cells);
+                swap(order, board, a, b);
+            }
+            else {
+                board[a] = roll(rand, order[a]);
+            }
+
+            int next = evaluate(scorer, board);
+            if (next >= current || rand.nextDouble() < Math.exp((next - current) / temp)) {
+                current = next;
+                if (best.size() < top || next > minValue(best)) {
+                    keep(best, board, scorer, top);
+                }
+            }
+            else if (b >= 0) {
+                swap(order, board, a, b);   // undo
+            }
+            else {
+                board[a] = old;
+            }
+        }
+        return best;
+    }
+
+    private char roll(Random rand, int die) {
+        if (freeLetters) {
+            return letters[rand.nextInt(letters.length)];
+        }
+        return dice[die][rand.nextInt(dice[die].length)];
+    }
+
+    private static void swap(int[] order, char[] board, int a, int b) {
+        int d = order[a];
+        order[a] = order[b];
+        order[b] = d;
+        char c = board[a];
+        board[a] = board[b];
+        board[b] = c;
+    }
+
+    private int evaluate(BoardSolver.Scorer scorer, char[] board) {
+        int score = scorer.score(board);
+        return (objective == Objective.SCORE) ? score : scorer.getCount();
+    }
+
+    private int minValue(List<Result> best) {
+        return best.stream().mapToInt(this::value).min().orElse(0);
+    }
+
+    // adds the board last scored to the best list, dropping the worst if it's full
+    private void keep(List<Result> best, char[] board, BoardSolver.Scorer scorer, int top) {
+        String s = new String(board);
+        for (Result r : best) {
+            if (r.board.equals(s)) {
+                return;
+            }
+        }
+        Result r = new Result();
+        r.board = s;
+        r.score = scorer.getScore();
+        r.count = scorer.getCount();
+        best.add(r);
+        if (best.size() > top) {
+            best.remove(best.stream().min(Comparator.comparingInt(this::value)).get());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package jgc;
+
+import java.util.Arrays;
+
+/**
+ * The paths on a board spelling each prefix of the word being typed, kept from one keystroke to the next.
+ * Typing a letter extends the last prefix's paths by one cell, and deleting one drops back to the paths already
+ * kept for the shorter prefix, so the cost of a keystroke doesn't grow with the length of the word.
+ *
+ * A path is packed into a long: the bit mask of the cells it visited (N*N is at most 49), and the cell it ends
+ * on in the top bits.  Paths with the same end and the same cells are only kept once, whatever their order.
+ *
+ * Cells match letters as the board has them, so a 'q' cell is only the letter 'q'.  For a Qu tile dictionary,
+ * follow the word as Dictionary.toSymbols() gives it, so the "qu" typed is the one 'q' cell.  Not thread safe.
+ */
+class BoardPaths {
+
+    private static final int END_SHIFT = 56;
+    private static final long MASK = (1L << END_SHIFT) - 1;
+
+    private final char[][] board;
+    private final int n;
+    private final int[][] neighbors;        // by cell, cell = i * n + j
+    private final StringBuilder word = new StringBuilder();
+    private long[][] levels = new long[8][];    // paths for word.substring(0, k + 1)
+    private int[] counts = new int[8];
+
+    BoardPaths(char[][] board) {
+        this.board = board;
+        this.n = board.length;
+        this.neighbors = BoardSolver.NEIGHBORS[n];
+    }
+
+    /**
+     * @return The board these are paths on
+     */
+    char[][] getBoard() {
+        return board;
+    }
+
+    /**
+     * Brings the paths up to date with the given word, keeping those of the prefix it shares with the last
+     * word.  Typing or deleting one letter is a single step.
+     *
+     * @param word
+     */
+    void follow(CharSequence word) {
+        int common = 0;
+        int max = Math.min(word.length(), this.word.length());
+        while (common < max && word.charAt(common) == this.word.charAt(common)) {
+            common++;
+        }
+        this.word.setLength(common);
+        for (int k = common; k < word.length(); k++) {
+            push(word.charAt(k));
+        }
+    }
+
+    /**
+     * @return Number of paths spelling the whole word
+     */
+    int size() {
+        return word.length() == 0 ? 0 : counts[word.length() - 1];
+    }
+
+    /**
+     * @return Bit mask of the cells on any path spelling the whole word
+     */
+    long reached() {
+        long cells = 0;
+        int k = word.length() - 1;
+        for (int p = 0; k >= 0 && p < counts[k]; p++) {
+            cells |= levels[k][p] & MASK;
+        }
+        return cells;
+    }
+
+    /**
+     * @return Bit mask of the cells the paths spelling the whole word end on
+     */
+    long ends() {
+        long cells = 0;
+        int k = word.length() - 1;
+        for (int p = 0; k >= 0 && p < counts[k]; p++) {
+            cells |= 1L << (levels[k][p] >>> END_SHIFT);
+        }
+        return cells;
+    }
+
+    // adds the paths for one more letter
+    private void push(char c) {
+        int k = word.length();
+        if (k == levels.length) {
+            levels = Arrays.copyOf(levels, k * 2);
+            counts = Arrays.copyOf(counts, k * 2);
+        }
+        long[] next = ensure(levels[k], (k == 0) ? n * n : 1);
+        int count = 0;
+        if (k == 0) {
+            for (int cell = 0; cell < n * n; cell++) {
+                if (letter(cell) == c) {
+                    next[count++] = path(cell, 1L << cell);
+                }
+            }
+        } else {
+            long[] last = levels[k - 1];
+            for (int p = 0; p < counts[k - 1]; p++) {
+                long visited = last[p] & MASK;
+                for (int cell : neighbors[(int) (last[p] >>> END_SHIFT)]) {
+                    if (letter(cell) == c && (visited & (1L << cell)) == 0) {
+                        next = ensure(next, count + 1);
+                        next[count++] = path(cell, visited | (1L << cell));
+                    }
+                }
+            }
+            count = dedupe(next, count);
+        }
+        levels[k] = next;
+        counts[k] = count;
+        word.append(c);
+    }
+
+    private char letter(int cell) {
+        return board[cell / n][cell % n];
+    }
+
+    private static long path(int end, long visited) {
+        return ((long) end << END_SHIFT) | visited;
+    }
+
+    private static long[] ensure(long[] a, int size) {
+        if (a == null) {
+            return new long[Math.max(size, 16)];
+        }
+        return a.length >= size ? a : Arrays.copyOf(a, Math.max(size, a.length * 2));
+    }
+
+    private static int dedupe(long[] a, int count) {
+        Arrays.sort(a, 0, count);
+        int unique = 0;
+        for (int p = 0; p < count; p++) {
+            if (unique == 0 || a[p] != a[unique - 1]) {
+                a[unique++] = a[p];
+            }
+        }
+        return unique;
+    }
+}
@@ -0,0 +1,696 @@
+package jgc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds every word on a board.  Thread safe: a solver holds only its read only dictionary and settings, and all
+ * state for a solve lives on the stack of the solving threads, so one solver (or one Dictionary) can serve any
+ * number of concurrent solves.  Results are returned as an immutable Solution.
+ *
+ * 'Q' is not assumed to be followed by a 'u'.  Instead, an optional 'u' will always be placed after
+ * any q's on the board.  For example, the board { qi,at }, can form quit or qat.  With a Dictionary.toQuTile()
+ * dictionary a 'q' cell is always "qu", found by one lookup, and only quit is formed.
+ *
+ * All dictionary engines are walked through their WordGraph, see Dictionary.getWordGraph().  The one exception is
+ * the BOARD and BITBOARD modes on a TRIE dictionary, which follow its TrieNodes directly.  That saves the graph
+ * adapter's index lookup on every step, and an end node's id is its word's, so no ranks are summed.
+ */
+public class BoardSolver {
+
+    /*
+     * Neighbor cells of each cell, by board size.  Cells are numbered i * N + j, so a 7x7 board's visited
+     * cells fit into the 49 low bits of a long.  Built for boards smaller than are played too, for tests.
+     */
+    static final int[][][] NEIGHBORS = new int[8][][];
+    static {
+        for (int n = 1; n <= 7; n++) {
+            NEIGHBORS[n] = buildNeighbors(n);
+        }
+    }
+
+    /*
+     * FORKJOIN splitting: subtrees are always forked up to two letter prefixes, then only while this thread's
+     * deque is short of work, and never below MAX_FORK_DEPTH letters where subtrees are too small to be worth it.
+     */
+    static final int FORK_DEPTH = 2;
+    static final int MAX_FORK_DEPTH = 6;
+    static final int SURPLUS = 3;
+
+    private final Dictionary dict;
+    private final WordGraph graph;
+    private final int wordLen;
+    private final Boggle.Solver mode;
+    private final boolean quTile;
+    private final TrieNode trieRoot;    // null unless a TRIE dictionary
+    private final ThreadLocal<Scorer> scorers = ThreadLocal.withInitial(() -> new Scorer());
+
+    /**
+     * @param dict    Dictionary to solve against
+     * @param wordLen Minimum word length
+     * @param mode    How visited cells are tracked
+     */
+    public BoardSolver(Dictionary dict, int wordLen, Boggle.Solver mode) {
+        this.dict = dict;
+        this.graph = dict.getWordGraph();
+        this.wordLen = wordLen;
+        this.mode = mode;
+        this.quTile = dict.isQuTile();
+        this.trieRoot = dict.getTrieRoot();
+    }
+
+    public Dictionary getDictionary() {
+        return dict;
+    }
+
+    static int[][] buildNeighbors(int n) {
+        int[][] neighbors = new int[n * n][];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int[] cells = new int[Boggle.moves.length / 2];
+                int count = 0;
+                for (int ix = 0; ix < Boggle.moves.length; ix += 2) {
+                    int ni = i + Boggle.moves[ix];
+                    int nj = j + Boggle.moves[ix + 1];
+                    if (ni >= 0 && ni < n && nj >= 0 && nj < n) {
+                        cells[count++] = ni * n + nj;
+                    }
+                }
+                neighbors[i * n + j] = Arrays.copyOf(cells, count);
+            }
+        }
+        return neighbors;
+    }
+
+    /**
+     * Solves the whole board on the calling thread.
+     *
+     * @param board NxN board, 3 <= N <= 7
+     * @return
+     */
+    public Solution solve(char[][] board) {
+        int n = board.length;
+        char[] cells = toCells(board);
+        BitSet found = new BitSet(graph.getCount());
+        for (int cell = 0; cell < n * n; cell++) {
+            solveCell(board, cells, cell).addTo(found);
+        }
+        return new Solution(dict, found);
+    }
+
+    /**
+     * Solves each start cell as a separate task on the given pool.  Each task collects word ids in its own
+     * WordIds buffer, and the buffers are merged once at the end.
+     *
+     * The FORKJOIN mode instead splits the board into a SolveTask per prefix, run on the pool if it is a
+     * ForkJoinPool or else on the common pool.
+     *
+     * @param board NxN board, 3 <= N <= 7
+     * @param pool
+     * @return
+     * @throws InterruptedException
+     */
+    public Solution solve(char[][] board, ExecutorService pool) throws InterruptedException {
+        int n = board.length;
+        char[] cells = toCells(board);
+        if (mode == Boggle.Solver.FORKJOIN) {
+            ForkJoinPool fj = (pool instanceof ForkJoinPool) ? (ForkJoinPool) pool : ForkJoinPool.commonPool();
+            BitSet found = new BitSet(graph.getCount());
+            fj.invoke(new SolveTask(NEIGHBORS[n], cells, null, -1, 0, 0, graph.root(), 0)).addTo(found);
+            return new Solution(dict, found);
+        }
+        List<Callable<WordIds>> calls = new ArrayList<>(n * n);
+        for (int cell = 0; cell < n * n; cell++) {
+            final int c = cell;
+            calls.add(() -> solveCell(board, cells, c));
+        }
+
+        BitSet found = new BitSet(graph.getCount());
+        try {
+            for (Future<WordIds> ids : pool.invokeAll(calls)) {
+                ids.get().addTo(found);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("solve failed", e.getCause());
+        }
+        return new Solution(dict, found);
+    }
+
+    /**
+     * True if the word is in the dictionary, is at least wordLen long, and can be traced on the board.  Checks
+     * the one word without solving the board: a walk down the dictionary, then a search for a path which is
+     * never deeper than the word is long.  For checking guesses while the board is still being solved.
+     *
+     * @param board NxN board, 3 <= N <= 7
+     * @param word
+     * @return
+     */
+    public boolean contains(char[][] board, CharSequence word) {
+        if (word.length() < wordLen) {
+            return false;
+        }
+        CharSequence symbols = dict.toSymbols(word, false);
+        int node = graph.root();
+        for (int i = 0; i < symbols.length() && node != WordGraph.NONE; i++) {
+            char c = symbols.charAt(i);
+            node = (c < Trie.FIRST_CHAR || c > Trie.LAST_CHAR) ? WordGraph.NONE : graph.child(node, c);
+        }
+        if (node == WordGraph.NONE || !graph.isEnd(node)) {
+            return false;
+        }
+        char[] cells = toCells(board);
+        int[][] neighbors = NEIGHBORS[board.length];
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (trace(neighbors, cells, word, 0, cell, 0L)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * True if the rest of the word, from pos on, can be traced from cell without going over a visited cell.  A
+     * 'q' cell matches either "q" or "qu", as in solve(), or only "qu" for a Qu tile dictionary.
+     */
+    private boolean trace(int[][] neighbors, char[] cells, CharSequence word, int pos, int cell, long visited) {
+        if (cells[cell] != word.charAt(pos)) {
+            return false;
+        }
+        visited |= 1L << cell;
+        boolean qu = cells[cell] == 'q';
+        if (!(qu && quTile) && traceFrom(neighbors, cells, word, pos + 1, cell, visited)) {
+            return true;
+        }
+        return qu && pos + 1 < word.length() && word.charAt(pos + 1) == 'u'
+                && traceFrom(neighbors, cells, word, pos + 2, cell, visited);
+    }
+
+    // true if the word is done at pos, or goes on from pos in a neighbor of cell
+    private boolean traceFrom(int[][] neighbors, char[] cells, CharSequence word, int pos, int cell,
+                              long visited) {
+        if (pos == word.length()) {
+            return true;
+        }
+        for (int next : neighbors[cell]) {
+            if ((visited & (1L << next)) == 0 && trace(neighbors, cells, word, pos, next, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // puts a cell's letter at soFar[k], followed by the 'u' of a Qu tile, and returns the new length
+    private int put(char[] soFar, int k, char c) {
+        soFar[k] = c;
+        if (c == 'q' && quTile) {
+            soFar[k + 1] = 'u';
+            return k + 2;
+        }
+        return k + 1;
+    }
+
+    private static char[] toCells(char[][] board) {
+        int n = board.length;
+        char[] cells = new char[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(board[i], 0, cells, i * n, n);
+        }
+        return cells;
+    }
+
+    /**
+     * @return Ids of all words starting on the given cell
+     */
+    WordIds solveCell(char[][] board, char[] cells, int cell) {
+        int n = board.length;
+        if (mode != Boggle.Solver.BOARD) {
+            return solveBitsPosition(n, cells, cell);
+        }
+        return solvePosition(board, cell / n, cell % n);
+    }
+
+    // thread safe solve - uses local copy of board & buffer
+    protected WordIds solvePosition(char[][] board, int i, int j) {
+        int n = board.length;
+        char[][] boardCopy = Arrays.stream(board).map(char[]::clone).toArray(char[][]::new);
+        char[] buf = new char[2 * n * n];   // room for a 'u' after every 'q'
+        WordIds ids = new WordIds();
+        if (trieRoot != null) {
+            solve(boardCopy, buf, i, j, 0, trieRoot, ids);
+        }
+        else {
+            solve(boardCopy, buf, i, j, 0, graph.root(), 0, ids);
+        }
+        return ids;
+    }
+
+    // are the coords in range and is that board location empty?
+    private static boolean isValid(char[][] board, int i, int j) {
+        int n = board.length;
+        if (i < 0 || i >= n || j < 0 || j >= n) return false;
+        return board[i][j] != 0;    // == 0 if already visited
+    }
+
+    /**
+     * Find all solutions for a single board position, by blanking out visited cells of a private board.
+     * @param soFar The current word we're building
+     * @param oldi  Previous i coord
+     * @param oldj  Previous j coord
+     * @param k     Size of the current word, so far
+     * @param node  Graph node for the current word
+     * @param id    Sum of ranks so far, which is the word id when node is an end node
+     * @param ids   Ids of the words found thus far
+     */
+    protected void solve(char[][] board, char[] soFar, int oldi, int oldj, int k, int node, int id, WordIds ids) {
+        if (k >= wordLen && graph.isEnd(node)) {
+            ids.add(id);
+        } // keep going, as the word may continue to grow
+
+        // if we're at 'q', try adding an optional 'u' and continue - and also continue w/o the 'u'
+        // (a Qu tile has already put its 'u')
+        if (k > 0 && soFar[k-1] == 'q') {
+            int q = graph.child(node, 'u');
+            if (q != WordGraph.NONE) {
+                soFar[k] = 'u';
+                solve(board, soFar, oldi, oldj, k + 1, q, id + graph.rank(node, 'u'), ids);
+            }
+        }
+
+        for (int ix = 0; ix < Boggle.moves.length; ix += 2) {
+            int i = oldi + Boggle.moves[ix];
+            int j = oldj + Boggle.moves[ix + 1];
+            if (!isValid(board, i, j)) {
+                continue;
+            }
+            char c = board[i][j];
+            int fragment = graph.child(node, c);
+            if (fragment != WordGraph.NONE) {
+                int next = put(soFar, k, c);
+                board[i][j] = 0;    // no going back onto a square
+                solve(board, soFar, i, j, next, fragment, id + graph.rank(node, c), ids);
+                board[i][j] = c;
+            }
+        }
+    }
+
+    // TrieNode version of solve(), for a TRIE dictionary
+    protected void solve(char[][] board, char[] soFar, int oldi, int oldj, int k, TrieNode node, WordIds ids) {
+        if (k >= wordLen && node.isEnd()) {
+            ids.add(node.getId());
+        }
+
+        if (k > 0 && soFar[k-1] == 'q') {
+            TrieNode q = node.map['u' - Trie.FIRST_CHAR];
+            if (q != null) {
+                soFar[k] = 'u';
+                solve(board, soFar, oldi, oldj, k + 1, q, ids);
+            }
+        }
+
+        for (int ix = 0; ix < Boggle.moves.length; ix += 2) {
+            int i = oldi + Boggle.moves[ix];
+            int j = oldj + Boggle.moves[ix + 1];
+            if (!isValid(board, i, j)) {
+                continue;
+            }
+            char c = board[i][j];
+            TrieNode fragment = node.map[c - Trie.FIRST_CHAR];
+            if (fragment != null) {
+                int next = put(soFar, k, c);
+                board[i][j] = 0;    // no going back onto a square
+                solve(board, soFar, i, j, next, fragment, ids);
+                board[i][j] = c;
+            }
+        }
+    }
+
+    /**
+     * Bitboard solve for words starting on a single cell.  Nothing is copied: the board is read only, visited
+     * cells are a bitmask passed down the stack, and the only allocations are the word and id buffers.
+     *
+     * @param n     Board size
+     * @param cells The board, one char per cell, shared by all threads
+     * @param cell  Start cell, i * N + j
+     */
+    protected WordIds solveBitsPosition(int n, char[] cells, int cell) {
+        WordIds ids = new WordIds();
+        if (trieRoot != null) {
+            TrieNode node = trieRoot.map[cells[cell] - Trie.FIRST_CHAR];
+            if (node != null) {
+                char[] buf = new char[2 * cells.length];
+                solveBits(NEIGHBORS[n], cells, buf, cell, put(buf, 0, cells[cell]), 1L << cell, node, ids);
+            }
+            return ids;
+        }
+        int root = graph.root();
+        int node = graph.child(root, cells[cell]);
+        if (node != WordGraph.NONE) {
+            char[] buf = new char[2 * cells.length];   // room for a 'u' after every 'q'
+            int k = put(buf, 0, cells[cell]);
+            solveBits(NEIGHBORS[n], cells, buf, cell, k, 1L << cell, node, graph.rank(root, cells[cell]), ids);
+        }
+        return ids;
+    }
+
+    /**
+     * Find all solutions continuing from a cell which has already been added to the word.
+     * @param neighbors NEIGHBORS for this board size
+     * @param cells     The board, one char per cell
+     * @param soFar     The current word we're building
+     * @param cell      The last cell added
+     * @param k         Size of the current word, so far
+     * @param visited   Bitmask of the cells already in the word
+     * @param node      Graph node for the current word
+     * @param id        Sum of ranks so far
+     * @param ids       Ids of the words found thus far
+     */
+    protected void solveBits(int[][] neighbors, char[] cells, char[] soFar, int cell, int k, long visited,
+                             int node, int id, WordIds ids) {
+        if (k >= wordLen && graph.isEnd(node)) {
+            ids.add(id);
+        }
+
+        if (soFar[k-1] == 'q') {
+            int q = graph.child(node, 'u');
+            if (q != WordGraph.NONE) {
+                soFar[k] = 'u';
+                solveBits(neighbors, cells, soFar, cell, k + 1, visited, q, id + graph.rank(node, 'u'), ids);
+            }
+        }
+
+        for (int next : neighbors[cell]) {
+            if ((visited & (1L << next)) != 0) {
+                continue;
+            }
+            int fragment = graph.child(node, cells[next]);
+            if (fragment != WordGraph.NONE) {
+                solveBits(neighbors, cells, soFar, next, put(soFar, k, cells[next]), visited | (1L << next),
+                        fragment, id + graph.rank(node, cells[next]), ids);
+            }
+        }
+    }
+
+    // TrieNode version of solveBits(), for a TRIE dictionary
+    protected void solveBits(int[][] neighbors, char[] cells, char[] soFar, int cell, int k, long visited,
+                             TrieNode node, WordIds ids) {
+        if (k >= wordLen && node.isEnd()) {
+            ids.add(node.getId());
+        }
+
+        if (soFar[k-1] == 'q') {
+            TrieNode q = node.map['u' - Trie.FIRST_CHAR];
+            if (q != null) {
+                soFar[k] = 'u';
+                solveBits(neighbors, cells, soFar, cell, k + 1, visited, q, ids);
+            }
+        }
+
+        for (int next : neighbors[cell]) {
+            if ((visited & (1L << next)) != 0) {
+                continue;
+            }
+            TrieNode fragment = node.map[cells[next] - Trie.FIRST_CHAR];
+            if (fragment != null) {
+                solveBits(neighbors, cells, soFar, next, put(soFar, k, cells[next]), visited | (1L << next),
+                        fragment, ids);
+            }
+        }
+    }
+
+    /**
+     * Fork/join version of solveBits().  A task owns the subtree below one prefix, and forks the subtrees of
+     * its longer prefixes as new tasks while idle threads may steal them - so a start cell with a busy
+     * neighborhood is spread over many threads, while a 'z' in the corner costs one small task.  The root
+     * task, cell < 0, forks one task per start cell.
+     */
+    private class SolveTask extends RecursiveTask<WordIds> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[][] neighbors;
+        private final char[] cells;
+        private final char[] soFar;     // owned by this task
+        private final int cell;
+        private final int k;
+        private final long visited;
+        private final int node;
+        private final int id;
+
+        SolveTask(int[][] neighbors, char[] cells, char[] soFar, int cell, int k, long visited, int node, int id) {
+            this.neighbors = neighbors;
+            this.cells = cells;
+            this.soFar = soFar;
+            this.cell = cell;
+            this.k = k;
+            this.visited = visited;
+            this.node = node;
+            this.id = id;
+        }
+
+        @Override
+        protected WordIds compute() {
+            WordIds ids = new WordIds();
+            List<SolveTask> forked = new ArrayList<>();
+            if (cell < 0) {
+                for (int start = 0; start < cells.length; start++) {
+                    int next = graph.child(node, cells[start]);
+                    if (next != WordGraph.NONE) {
+                        char[] buf = new char[2 * cells.length];   // room for a 'u' after every 'q'
+                        fork(forked, new SolveTask(neighbors, cells, buf, start, put(buf, 0, cells[start]),
+                                1L << start, next, id + graph.rank(node, cells[start])));
+                    }
+                }
+            }
+            else {
+                solveFork(soFar, cell, k, visited, node, id, ids, forked);
+            }
+            for (int i = forked.size() - 1; i >= 0; i--) {   // most recently forked are least likely stolen
+                ids.addAll(forked.get(i).join());
+            }
+            return ids;
+        }
+
+        private void fork(List<SolveTask> forked, SolveTask task) {
+            task.fork();
+            forked.add(task);
+        }
+
+        private boolean shouldFork(int k) {
+            return k < FORK_DEPTH || (k < MAX_FORK_DEPTH && getSurplusQueuedTaskCount() < SURPLUS);
+        }
+
+        // solveBits(), except that subtrees may be forked rather than walked
+        private void solveFork(char[] soFar, int cell, int k, long visited, int node, int id, WordIds ids,
+                               List<SolveTask> forked) {
+            if (k >= wordLen && graph.isEnd(node)) {
+                ids.add(id);
+            }
+
+            if (soFar[k-1] == 'q') {
+                int q = graph.child(node, 'u');
+                if (q != WordGraph.NONE) {
+                    soFar[k] = 'u';
+                    solveFork(soFar, cell, k + 1, visited, q, id + graph.rank(node, 'u'), ids, forked);
+                }
+            }
+
+            for (int next : neighbors[cell]) {
+                if ((visited & (1L << next)) != 0) {
+                    continue;
+                }
+                int fragment = graph.child(node, cells[next]);
+                if (fragment == WordGraph.NONE) {
+                    continue;
+                }
+                int nextId = id + graph.rank(node, cells[next]);
+                if (shouldFork(k)) {
+                    char[] buf = soFar.clone();
+                    fork(forked, new SolveTask(neighbors, cells, buf, next, put(buf, k, cells[next]),
+                            visited | (1L << next), fragment, nextId));
+                }
+                else {
+                    solveFork(soFar, next, put(soFar, k, cells[next]), visited | (1L << next), fragment, nextId,
+                            ids, forked);
+                }
+            }
+        }
+    }
+
+    /**
+     * True if the board scores at least the threshold, measured by score or by number of words.  Cheaper than
+     * solving, see Scorer.atLeast().  Thread safe - each thread gets its own Scorer.
+     *
+     * @param board     NxN board, 3 <= N <= 7
+     * @param threshold
+     * @param objective
+     * @return
+     */
+    public boolean atLeast(char[][] board, int threshold, BoardGenerator.Objective objective) {
+        return scorers.get().atLeast(toCells(board), threshold, objective);
+    }
+
+    /**
+     * Scores boards without building a Solution, for callers which solve millions of them: one bitboard walk
+     * per board, with nothing allocated.  A word found again on the same board is noticed by stamping its id.
+     * Not thread safe - use one per thread.
+     */
+    public class Scorer {
+        private final int[] seen = new int[graph.getCount()];
+        private final char[] soFar = new char[2 * 49];     // room for a 'u' after every 'q' on a 7x7 board
+        private int stamp;
+        private int score;
+        private int count;
+        private int maxLength;
+        private long[] letterPoints;    // optional, see setLetterPoints()
+        private boolean byCount;    // which of score or count is compared to limit
+        private int limit = Integer.MAX_VALUE;
+
+        /**
+         * @param cells NxN board, one char per cell, row major
+         * @return Total score of the board
+         */
+        public int score(char[] cells) {
+            limit = Integer.MAX_VALUE;
+            return walk(cells);
+        }
+
+        /**
+         * True if the board scores at least the threshold.  The board is walked as by score(), but the walk stops
+         * as soon as the threshold is reached, so a board which passes is cheaper than score() - the lower the
+         * threshold, the sooner.  A board which falls short is walked to the end.
+         *
+         * @param cells     NxN board, one char per cell, row major
+         * @param threshold
+         * @param objective
+         * @return
+         */
+        public boolean atLeast(char[] cells, int threshold, BoardGenerator.Objective objective) {
+            if (threshold <= 0) {
+                return true;
+            }
+            byCount = (objective == BoardGenerator.Objective.WORDS);
+            limit = threshold;
+
+            long[] points = letterPoints;   // the walk may not find every word
+            letterPoints = null;
+            try {
+                walk(cells);
+                return (byCount ? count : score) >= limit;
+            } finally {
+                letterPoints = points;
+            }
+        }
+
+        /**
+         * @return Score of the last board
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * @return Number of words found by the last score()
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return Length of the longest word found by the last score(), 0 if none
+         */
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        /**
+         * From now on, add the points of every word found by score() to each of its letters, indexed by letter - 'a'.  The
+         * array is added to across boards and never cleared.
+         *
+         * @param letterPoints 26 counters, or null to stop
+         */
+        public void setLetterPoints(long[] letterPoints) {
+            this.letterPoints = letterPoints;
+        }
+
+        private void nextStamp() {
+            if (++stamp == 0) {
+                Arrays.fill(seen, 0);
+                stamp = 1;
+            }
+        }
+
+        // adds a word of length k, unless it's been seen, and returns true once the limit is reached
+        private boolean found(int id, int k) {
+            if (seen[id] != stamp) {
+                seen[id] = stamp;
+                int points = Boggle.scores[Math.min(k, Boggle.scores.length - 1)];
+                score += points;
+                count++;
+                maxLength = Math.max(maxLength, k);
+                if (letterPoints != null) {
+                    for (int i = 0; i < k; i++) {
+                        letterPoints[soFar[i] - Trie.FIRST_CHAR] += points;
+                    }
+                }
+            }
+            return (byCount ? count : score) >= limit;
+        }
+
+        private int walk(char[] cells) {
+            int n = (int) Math.sqrt(cells.length);
+            nextStamp();
+            score = 0;
+            count = 0;
+            maxLength = 0;
+            int root = graph.root();
+            for (int cell = 0; cell < cells.length; cell++) {
+                int node = graph.child(root, cells[cell]);
+                if (node != WordGraph.NONE) {
+                    int k = put(soFar, 0, cells[cell]);
+                    if (scoreBits(NEIGHBORS[n], cells, cell, k, 1L << cell, node, graph.rank(root, cells[cell]))) {
+                        break;
+                    }
+                }
+            }
+            return score;
+        }
+
+        // solveBits(), adding up scores instead of collecting ids.  Returns true once the limit is reached.
+        private boolean scoreBits(int[][] neighbors, char[] cells, int cell, int k, long visited, int node, int id) {
+            if (k >= wordLen && graph.isEnd(node) && found(id, k)) {
+                return true;
+            }
+
+            if (soFar[k-1] == 'q') {
+                int q = graph.child(node, 'u');
+                if (q != WordGraph.NONE) {
+                    soFar[k] = 'u';
+                    if (scoreBits(neighbors, cells, cell, k + 1, visited, q, id + graph.rank(node, 'u'))) {
+                        return true;
+                    }
+                }
+            }
+
+            for (int next : neighbors[cell]) {
+                if ((visited & (1L << next)) != 0) {
+                    continue;
+                }
+                int fragment = graph.child(node, cells[next]);
+                if (fragment != WordGraph.NONE) {
+                    if (scoreBits(neighbors, cells, next, put(soFar, k, cells[next]), visited | (1L << next),
+                            fragment, id + graph.rank(node, cells[next]))) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
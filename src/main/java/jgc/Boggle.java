@@ -9,12 +9,24 @@ import org.apache.logging.log4j.core.config.Configurator;
 import picocli.CommandLine;
 import picocli.CommandLine.*;
 
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -64,6 +76,54 @@ public class Boggle implements Callable<Integer> {
     @Option(names = {"-d", "--dict"}, description = "Dictionary size, one of: ${COMPLETION-CANDIDATES}.", defaultValue = "M")
     protected Dictionary.DictSize dictSize;
 
+    @Option(names = {"-e", "--dict-engine"}, description = "Dictionary engine, one of: ${COMPLETION-CANDIDATES}.", defaultValue = "TRIE")
+    protected Dictionary.DictEngine dictEngine;
+
+    @Option(names = {"--dict-budget"}, description = "Megabytes of heap to keep loaded dictionaries in, for --serve requests with other dictionaries.  The game's own dictionary is always kept.  The default is half the heap.")
+    protected Integer dictBudget;
+
+    @Option(names = {"--qu-tile"}, description = "Read each q on the board as Qu, as printed on the dice, so the dictionary is looked up with \"qu\" as a single letter.  Words with a q not followed by u, such as qat, can't be played.", defaultValue = "false")
+    protected boolean quTile;
+
+    @Option(names = {"--dict-compile"}, description = "Compile the dictionary into a binary snapshot file, then exit.")
+    protected String dictCompile;
+
+    @Option(names = {"--dict-snapshot"}, description = "Memory map a snapshot made by --dict-compile instead of reading the word list.")
+    protected String dictSnapshot;
+
+    @Option(names = {"--solver"}, description = "Solver, one of: ${COMPLETION-CANDIDATES}.  BITBOARD tracks visited cells in a bitmask, FORKJOIN also splits the board into work stealing tasks.", defaultValue = "BOARD")
+    protected Solver solver;
+
+    @Option(names = {"--batch"}, description = "Solve boards read one per line, in compact string format, from a file or - for stdin.  Writes one JSON line per board, then exits.")
+    protected String batch;
+
+    @Option(names = {"--batch-words"}, description = "Include the word list of each board in --batch output.", defaultValue = "false")
+    protected boolean batchWords;
+
+    @Option(names = {"--batch-order"}, description = "--batch output order, one of: ${COMPLETION-CANDIDATES}.", defaultValue = "INPUT")
+    protected BatchOrder batchOrder;
+
+    @Option(names = {"--generate"}, description = "Search for high scoring NxN boards by simulated annealing, trying this many boards on each of -p threads.  Prints the best boards as JSON lines, then exits.")
+    protected Long generateSteps;
+
+    @Option(names = {"--generate-by"}, description = "What --generate maximizes, one of: ${COMPLETION-CANDIDATES}.", defaultValue = "SCORE")
+    protected BoardGenerator.Objective generateBy;
+
+    @Option(names = {"--generate-top"}, description = "Number of boards printed by --generate.", defaultValue = "10")
+    protected int generateTop;
+
+    @Option(names = {"--generate-free"}, description = "Let --generate put any dice letter in any cell, instead of rolling the real dice.", defaultValue = "false")
+    protected boolean generateFree;
+
+    @Option(names = {"--stats"}, description = "Roll this many random boards with each set of dice and solve them on -p threads.  Prints running word count, score, longest word and per letter histograms as JSON lines, then exits.")
+    protected Long statsBoards;
+
+    @Option(names = {"--serve"}, description = "Answer /solve, /score and /validate with JSON over HTTP on this local port, handling requests on -p threads.  Runs until killed.")
+    protected Integer servePort;
+
+    @Option(names = {"--cache"}, description = "Number of solved boards to keep, 0 for none.  Rotations and reflections of a board share an entry.", defaultValue = "256")
+    protected int cacheSize;
+
     @Option(names = {"-p", "--processes"}, description = "Size of thread pool.", defaultValue = "3")
     protected int numThreads;
 
@@ -79,6 +139,19 @@ public class Boggle implements Callable<Integer> {
     @Option(names = {"-XX"}, description = "Enable extra assist", defaultValue="false")
     protected boolean extraAssist;
 
+    /**
+     * BOARD    - copies the board for each start cell and blanks out visited cells
+     * BITBOARD - keeps visited cells in a long and uses precomputed BoardSolver.NEIGHBORS, no copies or bounds checks
+     * FORKJOIN - BITBOARD split into work stealing tasks by prefix, for big boards on many cores
+     */
+    public enum Solver { BOARD, BITBOARD, FORKJOIN }
+
+    /**
+     * INPUT      - results are written in the order the boards were read
+     * COMPLETION - results are written as soon as each board is solved, tagged with their input line
+     */
+    enum BatchOrder { INPUT, COMPLETION }
+
     static final int DIE_SIZE = 6;        // size of each die
     static final int TIMER_PERIOD = 1000; // clock tic, in millis
 
@@ -144,17 +217,23 @@ public class Boggle implements Callable<Integer> {
 
     char[][] dice;              // dice for NxN board
     char[][] _board;             // current board
+    private BoardPaths paths;    // of the word being typed on _board
+    private Reach[][] reach;
     Dictionary dict;            // dictionary, including word trie
+    private Dictionary pinned;  // dict, kept by the registry until close()
     TermServices ts;            // display routines
+    Solution solution;          // ids of all answers, from BoardSolver
     Set<String> solutionSet;    // set of all answers
     List<String> solutionList;  // sorted list of answers - TreeSets too expensive to create a sorted set
-    Dictionary solutionDictionary;  // dictionary of just solution words
     String solutionMax;         // longest string in current solution
     int solutionScore;          // the scoring of the entire solution
+    Future<Solution> solving;   // background solve started by play(), until solutionReady() takes its result
+    BoardSolver guessSolver;    // checks guesses until the solution is ready
 
     Set<String> guessSet;       // set of guesses
     List<String> guessList;     // duplicate ordered list of guesses
     ExecutorService threadPool; // thread pool
+    SolutionCache solutionCache;    // null if --cache is 0
 
     public Boggle() {
     }
@@ -171,11 +250,38 @@ public class Boggle implements Callable<Integer> {
         setLogLevel(logLevel);
         // boardString = "tslneiaentrtbeso";
         dice = buildDice(N);
-        dict = Dictionary.getDictionary(dictSize);
+        if (dictBudget != null) {
+            if (dictBudget <= 0) {
+                throw new ParameterException(spec.commandLine(), "--dict-budget must be > 0");
+            }
+            Dictionary.getRegistry().setBudget(dictBudget * 1024L * 1024L);
+        }
+        if (dictSnapshot != null) {
+            try {
+                dict = Dictionary.getDictionary(Paths.get(dictSnapshot));
+            } catch (IOException e) {
+                throw new ParameterException(spec.commandLine(), "--dict-snapshot can't be read: " + e.getMessage());
+            }
+        }
+        else {
+            dict = Dictionary.getDictionary(dictSize, dictEngine);
+            pinned = dict;
+            Dictionary.getRegistry().pin(pinned);
+        }
+        if (quTile) {
+            dict = dict.toQuTile();
+        }
         if (numThreads <= 0 || numThreads > 128) {
             throw new ParameterException(spec.commandLine(), "--processes must be >= 1 and <= 128 ");
         }
-        threadPool = Executors.newFixedThreadPool(numThreads);
+        if (cacheSize < 0) {
+            throw new ParameterException(spec.commandLine(), "--cache must be >= 0");
+        }
+        solutionCache = (cacheSize > 0) ? new SolutionCache(cacheSize) : null;
+        if (solutionCache != null) {
+            Dictionary.getRegistry().addEvictionListener(solutionCache);
+        }
+        threadPool = (solver == Solver.FORKJOIN) ? new ForkJoinPool(numThreads) : Executors.newFixedThreadPool(numThreads);
 
         // Place guesses in two locations: a set and an ordered list.  A LinkedHashMap can't do this
         // more efficiently, assuming that we'll never have more than a few dozen guesses.
@@ -184,6 +290,7 @@ public class Boggle implements Callable<Integer> {
 
         if (useTermServices) {
             ts = new TermServices(swing, getHelpMessage());
+            ts.quTile = dict.isQuTile();
         }
     }
 
@@ -231,25 +338,35 @@ public class Boggle implements Callable<Integer> {
             N = _board.length;
         }
         else {
-            _board = new char[N][N];
-            List<char[]> deck = new ArrayList<char[]>();
-            for (char[] die : dice) {
-                deck.add(die);
-            }
-            List<char[]> shuffled = new ArrayList<char[]>();
-            while (!deck.isEmpty()) {
-                shuffled.add(deck.remove(rand.nextInt(deck.size())));
-            }
-            int k = 0;
+            char[] cells = new char[N * N];
+            roll(dice, rand, cells);
+            _board = new char[N][];
             for (int i = 0; i < N; i++) {
-                for (int j = 0; j < N; j++) {
-                    char[] die = shuffled.get(k++);
-                    _board[i][j] = die[rand.nextInt(DIE_SIZE)];
-                }
+                _board[i] = Arrays.copyOfRange(cells, i * N, i * N + N);
             }
         }
     }
 
+    /**
+     * Shuffles the dice into the cells, then rolls each one.
+     *
+     * @param dice  One die per cell
+     * @param rand
+     * @param cells Filled in, row major
+     */
+    static void roll(char[][] dice, Random rand, char[] cells) {
+        int[] deck = new int[dice.length];
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = i;
+        }
+        for (int k = 0, left = deck.length; k < cells.length; k++, left--) {
+            int pick = rand.nextInt(left);
+            char[] die = dice[deck[pick]];
+            deck[pick] = deck[left - 1];
+            cells[k] = die[rand.nextInt(DIE_SIZE)];
+        }
+    }
+
     /**
      * Convert the board to a list of strings.
      * @return
@@ -291,6 +408,9 @@ public class Boggle implements Callable<Integer> {
         log.info("board json: " + boardToJson(_board));
         log.info("solution list: " + new Gson().toJson(solutionList));
         log.info("guess set: " + new Gson().toJson(guessSet));
+        if (solutionCache != null) {
+            log.info("solution cache: " + solutionCache);
+        }
         log.info("---------- end summary ----------");
     }
 
@@ -309,154 +429,129 @@ public class Boggle implements Callable<Integer> {
     }
 
     /**
-     * Finds all words which can be found on the board.  Assumes board is NxN, minimum word size is wordLen,
-     * and the dictionary in Trie format is "dict."
+     * Finds all words which can be found on the board, using a BoardSolver over the shared dictionary.
+     * Each start cell is solved as a separate task on the thread pool.  Boards already in the solution cache,
+     * in any orientation, aren't solved again.
      *
-     * 'Q' is not assumed to be followed by a 'u'.  Instead, an optional 'u' will always be placed after
-     * any q's on the board.  For example, the board { qi,at }, can form quit or qat.
-     *
-     * Sets this.solutionSet, this.solutionList and this.solutionDictionary
+     * Sets this.solution, this.solutionSet and this.solutionList
+     */
+    protected void solve() {
+        setSolution(solveCached(_board));
+    }
+
+    /**
+     * Starts solve() on a thread of its own, so play can start at once.  Guesses are checked one at a time by
+     * isGuess() until solutionReady() finds the solution done.
+     */
+    protected void solveInBackground() {
+        char[][] board = _board;
+        FutureTask<Solution> task = new FutureTask<>(() -> solveCached(board));
+        solution = null;
+        solving = task;
+        guessSolver = new BoardSolver(dict, wordLen, solver);
+        Thread t = new Thread(task, "solve");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * True once the solution is known.  Sets it, as solve() does, on the calling thread the first time the
+     * background solve is found done.
      *
      * @return
      */
-    protected void solve() {
-        final Set<TrieNode> solNodes = ConcurrentHashMap.newKeySet();   // expensive synchronized & partitioned map
-        List<Callable<Void>> calls = new ArrayList<>(N*N+1);
-        for (int i = 0; i < N; i++) {
-            final int ii = i;
-            for (int j = 0; j < N; j++) {
-                final int jj = j;
-                calls.add(() -> solvePosition(solNodes, ii, jj));
-            }
+    protected boolean solutionReady() {
+        if (solution == null && solving != null && solving.isDone()) {
+            awaitSolution();
         }
+        return solution != null;
+    }
 
+    /**
+     * Waits for the background solve, if there is one, and sets its solution.
+     */
+    protected void awaitSolution() {
+        if (solving == null) {
+            return;
+        }
         try {
-            threadPool.invokeAll(calls);
+            setSolution(solving.get());
+            solving = null;
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while solving", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("solve failed", e.getCause());
         }
+    }
 
-        Set<String> solutionSet = new HashSet<>();
-        List<String> solutionList = new ArrayList<>();
-        for (TrieNode tnode : solNodes) {
-            tnode.setUsed(false);
-            solutionSet.add(tnode.getWord());
-            solutionList.add(tnode.getWord());
-        }
-        this.solutionSet = solutionSet;
-        this.solutionList = solutionList;
-        Collections.sort(this.solutionList);
-        this.solutionDictionary = Dictionary.getDictionary(this.solutionList);
+    /**
+     * True if the guess is on the board.  Checked on its own while the solution isn't ready.
+     *
+     * @param word
+     * @return
+     */
+    protected boolean isGuess(String word) {
+        return solutionReady() ? solutionSet.contains(word) : guessSolver.contains(_board, word);
     }
 
-    // thread safe solve - uses local copy of board & buffer
-    protected Void solvePosition(Set<TrieNode> set, int i, int j) {
-        char[][] boardCopy = Arrays.stream(_board).map(char[]::clone).toArray(char[][]::new);
-        char[] buf = new char[N*N+1];
-        solve(boardCopy, buf, i, j, 0, null, set);
-        return null;
+    private Solution solveCached(char[][] board) {
+        return (solutionCache != null)
+                ? solutionCache.get(board, dict, wordLen, this::solveBoard)
+                : solveBoard(board);
     }
 
-    /**
-     * Find all solutions for a single board position
-     * @param soFar The current word we're building
-     * @param oldi  Previous i coord
-     * @param oldj  Previous j coord
-     * @param k     Size of the current word, so far
-     * @param root  Current dictionary node
-     * @param set   A set of all the words found thus far
-     */
-    protected void solve(char[][] board, char[] soFar, int oldi, int oldj, int k, TrieNode root, Set<TrieNode> set) {
-        if (root != null && root.isEnd() && k >= wordLen && !root.isUsed()) {
-            root.setUsed(true);
-            set.add(root);
-        } // keep going, as the word may continue to grow
-
-        // if we're at 'q', try adding an optional 'u' and continue - ad also continue w/o the 'u'
-        if (k > 0 && soFar[k-1] == 'q') {
-            TrieNode q = dict.findWordTree(root, 'u');
-            if (q != null) {
-                soFar[k] = 'u';
-                solve(board, soFar, oldi, oldj, k + 1, q, set);
-            }
+    private Solution solveBoard(char[][] board) {
+        try {
+            return new BoardSolver(dict, wordLen, solver).solve(board, threadPool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while solving", e);
         }
+    }
 
-        for (int ix = 0; ix < moves.length; ix += 2) {
-            int i = oldi + moves[ix];
-            int j = oldj + moves[ix + 1];
-            if (!isValid(board, i, j)) {
-                continue;
-            }
-            TrieNode fragment = dict.findWordTree(root, board[i][j], null);
-            if (fragment != null) {
-                soFar[k] = board[i][j];
-                board[i][j] = 0;    // no going back onto a square
-                solve(board, soFar, i, j, k + 1, fragment, set);
-                board[i][j] = soFar[k];
-            }
-        }
+    private void setSolution(Solution solution) {
+        this.solution = solution;
+        this.solutionList = solution.getWords();
+        this.solutionSet = new HashSet<>(this.solutionList);
+        this.solutionScore = solution.getScore();
+        this.solutionMax = solution.getMaxWord();
     }
 
     enum Reach { NONE, REACHED, MORE }
 
     /**
      * Mark all board positions which the given word fragment may occupy.  Used to highlight word in
-     * progress.
+     * progress.  The paths of the last fragment are kept, so typing or deleting a letter only takes a step
+     * from them.
      * @param word
-     * @return A boolean mirror of the board, where each true may have been reached by the word.
+     * @return A mirror of the board, marking the cells on some path of the word, and with extra assist the
+     * cells which lead on to a solution.  Reused by the next call.
      */
     protected Reach[][] boardReach(String word) {
         if (StringUtils.isEmpty(word)) {
             return null;
         }
-        Reach[][] matchBoard = new Reach[N][N];
-        char[] wchars = word.toCharArray();
-        for (int i = 0; i < N; i++) {
-            for (int j = 0; j < N; j++) {
-                matchBoard[i][j] = Reach.NONE;
-            }
+        if (paths == null || paths.getBoard() != _board) {
+            paths = new BoardPaths(_board);
+            reach = new Reach[N][N];
         }
-        for (int i = 0; i < N; i++) {
-            for (int j = 0; j < N; j++) {
-                if (_board[i][j] == wchars[0] && reachCrawl(matchBoard, i, j, wchars, 0)) {
-                    matchBoard[i][j] = Reach.REACHED;
-                }
-            }
+        paths.follow(dict.toSymbols(word, true));
+        for (Reach[] row : reach) {
+            Arrays.fill(row, Reach.NONE);
         }
-        return matchBoard;
-    }
-
-    /**
-     * Recursive helper function for boardReach().
-     * @param matchBoard Where to record matches
-     * @param oldi Last matched row
-     * @param oldj Last matched column
-     * @return True if the current path matches word entirely
-     */
-    boolean reachCrawl(Reach[][] matchBoard, int oldi, int oldj, char[] word, int k) {
-        if (k >= word.length-1) {
-            if (extraAssist) {
-                TrieNode tnode = solutionDictionary.findWordTree(null, word);
-                if (tnode != null) {
-                    solutionCrawl(matchBoard, oldi, oldj, tnode);
-                }
+        char[] wchars = word.toCharArray();
+        if (extraAssist && solutionReady() && solution.hasPrefix(word)) {
+            for (long ends = paths.ends(); ends != 0; ends &= ends - 1) {
+                int cell = Long.numberOfTrailingZeros(ends);
+                solutionCrawl(reach, cell / N, cell % N, wchars);
             }
-            return true;
         }
-
-        boolean found = false;
-        for (int ix = 0; ix < moves.length; ix += 2) {
-            int newi = oldi + moves[ix];
-            int newj = oldj + moves[ix + 1];
-            if (!isValid(_board, newi, newj)) {
-                continue;
-            }
-            if (_board[newi][newj] == word[k+1] && reachCrawl( matchBoard, newi, newj, word, k+1)) {
-                matchBoard[newi][newj] = Reach.REACHED;
-                found = true;
-            }
+        for (long cells = paths.reached(); cells != 0; cells &= cells - 1) {
+            int cell = Long.numberOfTrailingZeros(cells);
+            reach[cell / N][cell % N] = Reach.REACHED;
         }
-        return found;
+        return reach;
     }
 
     /**
@@ -466,16 +561,18 @@ public class Boggle implements Callable<Integer> {
      * @param matchBoard Where to record new paths to investigate
      * @param oldi Row of last letter of word
      * @param oldj Col of last letter of word
-     * @param tnode The trie node of the word reached thus far
+     * @param word The word reached thus far, a prefix of some solution
      */
-    void solutionCrawl(Reach[][] matchBoard, int oldi, int oldj, TrieNode tnode) {
+    void solutionCrawl(Reach[][] matchBoard, int oldi, int oldj, char[] word) {
+        StringBuilder prefix = new StringBuilder(word.length + 1).append(word).append(' ');
         for (int ix = 0; ix < moves.length; ix += 2) {
             int newi = oldi + moves[ix];
             int newj = oldj + moves[ix + 1];
             if (!isValid(_board, newi, newj)) {
                 continue;
             }
-            if (solutionDictionary.findWordTree(tnode, _board[newi][newj]) != null) {
+            prefix.setCharAt(word.length, _board[newi][newj]);
+            if (solution.hasPrefix(prefix)) {
                 matchBoard[newi][newj] = Reach.MORE;
             }
         }
@@ -493,7 +590,7 @@ public class Boggle implements Callable<Integer> {
      * @param words
      * @return
      */
-    int[] scores = {0, 0, 0, 1, 1, 2, 3, 5, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11};
+    static final int[] scores = {0, 0, 0, 1, 1, 2, 3, 5, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11, 11};
     protected int score(String word) {
         return scores[word.length()];
     }
@@ -502,20 +599,11 @@ public class Boggle implements Callable<Integer> {
         return words.stream().mapToInt(w -> score(w)).sum();
     }
 
-    /**
-     * Return longest word in the list of words, which will presumably be the highest scoring word.
-     * @param words
-     * @return
-     */
-    protected String maxWord(Set<String> words) {
-        return words.stream().max(Comparator.comparingInt(String::length)).get();
-    }
-
     private String boardToJson(char[][] b) {
         return new Gson().toJson(b);
     }
 
-    private char[][] jsonToBoard(String json) {
+    protected char[][] jsonToBoard(String json) {
         char[][] newBoard = new Gson().fromJson(json, char[][].class);
         int len = newBoard.length;
         if (len < 3 || len > 7) {
@@ -550,7 +638,10 @@ public class Boggle implements Callable<Integer> {
     }
 
     private void displayScore(boolean showMax) {
-        if (showMax) {
+        if (!solutionReady()) {
+            ts.displayStatus(-1, -1, guessSet.size(), score(guessSet), null, 0);
+        }
+        else if (showMax) {
             ts.displayStatus(solutionSet.size(), solutionScore, guessSet.size(), score(guessSet), solutionMax, score(solutionMax));
         }
         else {
@@ -653,18 +744,31 @@ public class Boggle implements Callable<Integer> {
     }
 
     /**
-     * True if the word is not a word in the dictionary, or is a prefix of a possible word.
+     * True if the word is not a word in the dictionary, or is a prefix of a possible word.  Until the solution is
+     * ready, only whether it starts some word in the dictionary.
      * @param word
      * @return
      */
     protected boolean isBadPartial(String word) {
-        return StringUtils.isNotBlank(word) && solutionDictionary.findWordTree(word) == null;
+        if (StringUtils.isBlank(word)) {
+            return false;
+        }
+        if (!solutionReady()) {
+            String symbols = dict.toSymbols(word, true).toString();
+            return !symbols.chars().allMatch(c -> c >= Trie.FIRST_CHAR && c <= Trie.LAST_CHAR)
+                    || dict.getWordGraph().findNode(symbols) == WordGraph.NONE;
+        }
+        return !solution.hasPrefix(word);
     }
 
     /**
-     * Stop timer, shut down UI.
+     * Stop timer, shut down UI, let the registry drop the dictionary.
      */
     public void close() {
+        if (pinned != null) {
+            Dictionary.getRegistry().unpin(pinned);
+            pinned = null;
+        }
         if (timer != null) {
             timer.cancel();
         }
@@ -687,9 +791,7 @@ public class Boggle implements Callable<Integer> {
      */
     protected void play() {
         fillBoard();
-        solve();
-        this.solutionScore = score(this.solutionSet);
-        this.solutionMax = maxWord(this.solutionSet);
+        solveInBackground();
         displayScore(false);
         String blank = ts.spaces(TermServices.WORD_WIDTH);
 
@@ -749,7 +851,7 @@ public class Boggle implements Callable<Integer> {
                     ts.showSingleWord(guessSet.size(), blank, false);
                     ts.showSingleWord(guessSet.size(), "", false);
                 }
-                else if (!solutionSet.contains(w)) {
+                else if (!isGuess(w)) {
                     ts.showSingleWord(guessSet.size(), blank, false);
                     ts.showSingleWord(guessSet.size(), "", false);
                 }
@@ -770,6 +872,7 @@ public class Boggle implements Callable<Integer> {
 
         try {
             timer.cancel();
+            awaitSolution();
             ts.clear();
             ts.displayBoard(_board, null);
             displayScore(true);
@@ -782,6 +885,187 @@ public class Boggle implements Callable<Integer> {
         close();
     }
 
+    /**
+     * One line of --batch output.  Null fields are left out of the JSON.
+     */
+    static class BatchResult {
+        Integer line;       // 1 based input line number
+        String board;
+        Integer count;      // number of words
+        Integer score;      // total possible score
+        String max;         // longest word
+        List<String> words;
+        String error;       // set instead of the above for a bad board
+    }
+
+    /**
+     * Headless solving of many boards: no TermServices and no timer.  Each board is a separate task on the thread
+     * pool, solved by a shared BoardSolver on that thread.  At most a few boards per thread are in flight at once,
+     * so memory stays flat however long the input is.
+     *
+     * @param in  Boards in compact string format, one per line.  Blank lines are skipped.
+     * @param out Where to write the JSON lines
+     * @return Number of boards which couldn't be solved
+     */
+    protected int batch(BufferedReader in, PrintStream out) throws IOException, InterruptedException {
+        BoardSolver boardSolver = new BoardSolver(dict, wordLen, solver);
+        CompletionService<BatchResult> completion = new ExecutorCompletionService<>(threadPool);
+        Deque<Future<BatchResult>> pending = new ArrayDeque<>();
+        int window = numThreads * 4;
+        Gson gson = new Gson();
+        int errors = 0;
+        int lineNum = 0;
+
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNum++;
+            String b = line.trim().toLowerCase();
+            if (b.isEmpty()) {
+                continue;
+            }
+            final int n = lineNum;
+            Callable<BatchResult> task = () -> batchSolve(boardSolver, n, b);
+            pending.add((batchOrder == BatchOrder.COMPLETION) ? completion.submit(task) : threadPool.submit(task));
+            if (pending.size() >= window) {
+                errors += batchWrite(out, gson, batchNext(completion, pending));
+            }
+        }
+        while (!pending.isEmpty()) {
+            errors += batchWrite(out, gson, batchNext(completion, pending));
+        }
+        out.flush();
+        return errors;
+    }
+
+    private BatchResult batchSolve(BoardSolver boardSolver, int line, String board) {
+        BatchResult r = new BatchResult();
+        r.line = line;
+        r.board = board;
+        try {
+            if (!board.chars().allMatch(c -> c >= Trie.FIRST_CHAR && c <= Trie.LAST_CHAR)) {
+                throw new IllegalArgumentException("board must only contain the letters a to z");
+            }
+            Solution solution = solveHeadless(boardSolver, stringToBoard(board));
+            r.count = solution.getCount();
+            r.score = solution.getScore();
+            r.max = solution.getMaxWord();
+            if (batchWords) {
+                r.words = solution.getWords();
+            }
+        } catch (ParameterException | IllegalArgumentException e) {
+            r.error = e.getMessage();
+        }
+        return r;
+    }
+
+    /**
+     * Solves on the calling thread, through the solution cache if there is one.  For --batch and --serve.
+     */
+    Solution solveHeadless(BoardSolver boardSolver, char[][] board) {
+        return (solutionCache != null)
+                ? solutionCache.get(board, boardSolver.getDictionary(), wordLen, boardSolver::solve)
+                : boardSolver.solve(board);
+    }
+
+    // next result to write, depending on --batch-order
+    private BatchResult batchNext(CompletionService<BatchResult> completion, Deque<Future<BatchResult>> pending)
+            throws InterruptedException {
+        try {
+            if (batchOrder == BatchOrder.COMPLETION) {
+                Future<BatchResult> f = completion.take();
+                pending.remove(f);
+                return f.get();
+            }
+            return pending.removeFirst().get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("batch solve failed", e.getCause());
+        }
+    }
+
+    private int batchWrite(PrintStream out, Gson gson, BatchResult r) {
+        out.println(gson.toJson(r));
+        return (r.error != null) ? 1 : 0;
+    }
+
+    private void runBatch() throws IOException, InterruptedException {
+        BufferedReader in = "-".equals(batch)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(batch), StandardCharsets.UTF_8);
+        try {
+            int errors = batch(in, System.out);
+            if (errors > 0) {
+                log.warn("--batch: " + errors + " boards could not be solved");
+            }
+            if (solutionCache != null) {
+                log.info("solution cache: " + solutionCache);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * --generate: anneal one chain per thread and print the best boards found.
+     */
+    private void runGenerate() throws InterruptedException {
+        if (generateSteps <= 0 || generateTop <= 0) {
+            throw new ParameterException(spec.commandLine(), "--generate and --generate-top must be > 0");
+        }
+        BoardGenerator generator = new BoardGenerator(new BoardSolver(dict, wordLen, solver), dice, generateBy,
+                generateFree);
+        Gson gson = new Gson();
+        for (BoardGenerator.Result r : generator.generate(threadPool, numThreads, generateSteps, generateTop,
+                rand.nextLong())) {
+            System.out.println(gson.toJson(r));
+        }
+        System.out.flush();
+    }
+
+    /**
+     * --stats: roll and score boards with every set of dice, the old 4x4 dice too, printing the totals so far
+     * every tenth of the boards and then the final totals of each set.
+     */
+    private void runStats() throws InterruptedException {
+        if (statsBoards <= 0) {
+            throw new ParameterException(spec.commandLine(), "--stats must be > 0");
+        }
+        DiceStats stats = new DiceStats(new BoardSolver(dict, wordLen, solver));
+        Gson gson = new Gson();
+        String[] names = { "threeDice", "oldDice", "fourDice", "fiveDice", "sixDice", "sevenDice" };
+        String[][] sets = { threeDice, oldDice, fourDice, fiveDice, sixDice, sevenDice };
+        for (int i = 0; i < sets.length; i++) {
+            char[][] d = new char[sets[i].length][];
+            for (int j = 0; j < d.length; j++) {
+                d[j] = sets[i][j].toCharArray();
+            }
+            DiceStats.Stats total = stats.run(names[i], d, statsBoards, rand.nextLong(), threadPool,
+                    s -> System.out.println(gson.toJson(s)));
+            System.out.println(gson.toJson(total));
+            System.out.flush();
+        }
+    }
+
+    /**
+     * --serve: answer requests until the JVM is shut down.
+     */
+    private void runServe() throws IOException, InterruptedException {
+        if (servePort < 0 || servePort > 65535) {
+            throw new ParameterException(spec.commandLine(), "--serve must be a port number");
+        }
+        BoggleServer server = new BoggleServer(this, servePort, numThreads);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            threadPool.shutdown();
+            close();
+            stopped.countDown();
+        }));
+        server.start();
+        System.out.println("serving on http://localhost:" + server.getPort());
+        System.out.flush();
+        stopped.await();
+    }
+
     private String getHelpMessage() {
         // strips non-printable formatting characters from help
         return spec.commandLine().getUsageMessage(Help.Ansi.OFF);
@@ -798,6 +1082,47 @@ public class Boggle implements Callable<Integer> {
      */
     @Override
     public Integer call() throws Exception {
+        if (dictCompile != null) {
+            init(false);
+            dict.writeSnapshot(Paths.get(dictCompile));
+            close();
+            return 0;
+        }
+        if (generateSteps != null) {
+            init(false);
+            try {
+                runGenerate();
+            } finally {
+                threadPool.shutdown();
+                close();
+            }
+            return 0;
+        }
+        if (statsBoards != null) {
+            init(false);
+            try {
+                runStats();
+            } finally {
+                threadPool.shutdown();
+                close();
+            }
+            return 0;
+        }
+        if (servePort != null) {
+            init(false);
+            runServe();
+            return 0;
+        }
+        if (batch != null) {
+            init(false);
+            try {
+                runBatch();
+            } finally {
+                threadPool.shutdown();
+                close();
+            }
+            return 0;
+        }
         init();
         play();
         return 0;
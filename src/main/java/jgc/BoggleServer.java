@@ -0,0 +1,268 @@
+package jgc;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import picocli.CommandLine.ParameterException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * --serve: solves boards over HTTP on a local port, so callers pay for JVM start up and dictionary loading
+ * once instead of once per board.  Uses the JDK's HttpServer, which keeps connections alive between requests.
+ *
+ * Endpoints, GET with a query string or POST with a form body:
+ *   /solve?board=...               count, score, longest word and the words
+ *   /score?board=...               count, score and longest word, no words spelled out
+ *   /validate?board=...&words=...  which of the comma separated words are on the board, and their score
+ *
+ * Boards are in compact string format, or JSON if they start with '['.  Answers are JSON, or an "error" with
+ * status 400 for a bad request.
+ *
+ * Any request may add dict=S..XXL, and engine=TRIE, FLAT or DAWG, to use another dictionary than the one the
+ * server started with.  Those are loaded on first use and kept within --dict-budget, see DictionaryRegistry.
+ *
+ * Requests are handled on a fixed pool with a bounded queue.  When the queue is full the server's dispatcher
+ * thread handles the request itself, and so stops accepting connections until it's done.  Boards are solved on
+ * the handling thread, through the solution cache if there is one.
+ */
+class BoggleServer {
+
+    private static final Logger log = LogManager.getLogger(BoggleServer.class);
+
+    static final int QUEUE_PER_THREAD = 16;
+
+    /**
+     * One answer.  Null fields are left out of the JSON.
+     */
+    static class Result extends Boggle.BatchResult {
+        List<String> valid;     // /validate: words on the board
+        List<String> invalid;   // /validate: the rest
+        Integer validScore;     // /validate: score of the valid words
+    }
+
+    private final Boggle boggle;
+    private final BoardSolver boardSolver;
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final Gson gson = new Gson();
+
+    /**
+     * @param boggle  Dictionary, word length, solver and cache to use, and board parsing
+     * @param port    Local port, 0 for any free one
+     * @param threads Request handling threads
+     * @throws IOException
+     */
+    BoggleServer(Boggle boggle, int port, int threads) throws IOException {
+        this.boggle = boggle;
+        this.boardSolver = new BoardSolver(boggle.dict, boggle.wordLen, boggle.solver);
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");  // don't hold back small answers
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD), new ThreadPoolExecutor.CallerRunsPolicy());
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    void start() {
+        server.start();
+        log.info("serving on port " + getPort());
+    }
+
+    /**
+     * @param delay Seconds to wait for requests in progress
+     */
+    void stop(int delay) {
+        server.stop(delay);
+        executor.shutdown();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"POST".equals(method)) {
+                send(exchange, 405, error("GET or POST only"));
+                return;
+            }
+            if (!"/solve".equals(path) && !"/score".equals(path) && !"/validate".equals(path)) {
+                send(exchange, 404, error("unknown path: " + path));
+                return;
+            }
+            Result r;
+            try {
+                r = answer(path, params(exchange));
+            } catch (ParameterException | IllegalArgumentException | JsonParseException e) {
+                send(exchange, 400, error(e.getMessage()));
+                return;
+            }
+            send(exchange, 200, r);
+        } catch (RuntimeException e) {
+            log.error("request failed: " + exchange.getRequestURI(), e);
+            send(exchange, 500, error("internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @param path   /solve, /score or /validate
+     * @param params Request parameters
+     * @return
+     */
+    Result answer(String path, Map<String, String> params) {
+        String board = params.get("board");
+        if (board == null || board.isEmpty()) {
+            throw new IllegalArgumentException("board is required");
+        }
+        char[][] b = parseBoard(board.trim().toLowerCase());
+        Solution solution = boggle.solveHeadless(solverFor(params), b);
+
+        Result r = new Result();
+        r.board = boggle.boardToString(b);
+        if ("/validate".equals(path)) {
+            String words = params.get("words");
+            if (words == null) {
+                throw new IllegalArgumentException("words is required");
+            }
+            Set<String> valid = new LinkedHashSet<>();
+            r.invalid = new ArrayList<>();
+            for (String w : words.split(",")) {
+                w = w.trim().toLowerCase();
+                if (w.isEmpty()) {
+                    continue;
+                }
+                if (solution.contains(w)) {
+                    valid.add(w);
+                }
+                else {
+                    r.invalid.add(w);
+                }
+            }
+            r.valid = new ArrayList<>(valid);
+            r.validScore = boggle.score(valid);
+            return r;
+        }
+        r.count = solution.getCount();
+        r.score = solution.getScore();
+        r.max = solution.getMaxWord();
+        if ("/solve".equals(path)) {
+            r.words = solution.getWords();
+        }
+        return r;
+    }
+
+    // the server's solver, or one for the dictionary asked for
+    private BoardSolver solverFor(Map<String, String> params) {
+        String size = params.get("dict");
+        String engine = params.get("engine");
+        if (size == null && engine == null) {
+            return boardSolver;
+        }
+        Dictionary dict = Dictionary.getDictionary(
+                (size == null) ? boggle.dictSize : parseEnum(Dictionary.DictSize.class, "dict", size),
+                (engine == null) ? boggle.dictEngine : parseEnum(Dictionary.DictEngine.class, "engine", engine));
+        if (boggle.quTile) {
+            dict = dict.toQuTile();
+        }
+        return (dict == boardSolver.getDictionary())
+                ? boardSolver
+                : new BoardSolver(dict, boggle.wordLen, boggle.solver);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(name + " must be one of: " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private char[][] parseBoard(String board) {
+        char[][] b = board.startsWith("[") ? boggle.jsonToBoard(board) : boggle.stringToBoard(board);
+        for (char[] row : b) {
+            if (row == null || row.length != b.length) {
+                throw new IllegalArgumentException("board must be square");
+            }
+            for (char c : row) {
+                if (c < Trie.FIRST_CHAR || c > Trie.LAST_CHAR) {
+                    throw new IllegalArgumentException("board must only contain the letters a to z");
+                }
+            }
+        }
+        return b;
+    }
+
+    private static Result error(String message) {
+        Result r = new Result();
+        r.error = message;
+        return r;
+    }
+
+    private void send(HttpExchange exchange, int status, Result r) throws IOException {
+        byte[] body = gson.toJson(r).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);     // a length keeps the connection alive
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Query string parameters, and form parameters of a POST.  The last of repeated parameters wins.
+     */
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        if ("POST".equals(exchange.getRequestMethod())) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (InputStream in = exchange.getRequestBody()) {
+                byte[] buf = new byte[4096];
+                for (int n; (n = in.read(buf)) > 0; ) {
+                    bytes.write(buf, 0, n);
+                }
+            }
+            parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    static void parse(String query, Map<String, String> params) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = (eq < 0) ? pair : pair.substring(0, eq);
+            String value = (eq < 0) ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package jgc;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a minimized directed acyclic word graph from a finished Trie.  Any two trie nodes with the same
+ * end flag and the same (letter, child) edges accept exactly the same set of suffixes, so only one copy is
+ * kept.  In English this collapses the endless "-ing", "-ness" and "-ations" tails, and the node count drops
+ * by an order of magnitude on the larger dictionaries.
+ *
+ * Nodes are merged bottom up: each child is replaced by its canonical node before its parent is looked up,
+ * so two nodes are equal iff their signatures are equal.  The result is a FlatTrie with shared targets, and
+ * supports exactly the same prefix walks as the original trie.
+ */
+public class Dawg {
+
+    private static final Logger log = LogManager.getLogger(Dawg.class);
+
+    private final Map<Signature, Integer> register = new HashMap<>();
+    private int[] mask;
+    private int[] first;
+    private int[] target;
+    private int[] rank;
+    private int[] words;    // number of words at or below each node
+    private int nodes = 0;
+    private int edges = 0;
+    private int count = 0;
+
+    private Dawg(int maxNodes) {
+        mask = new int[maxNodes];
+        first = new int[maxNodes];
+        target = new int[maxNodes];
+        rank = new int[maxNodes];
+        words = new int[maxNodes];
+    }
+
+    /**
+     * @param trie
+     * @return A minimized copy of the trie.  The trie may be discarded afterwards.
+     */
+    public static FlatTrie compile(Trie trie) {
+        Dawg dawg = new Dawg(trie.getNodeCount());
+        int root = dawg.minimize(trie.getRoot());
+        log.debug("dawg nodes: " + dawg.nodes + " of " + trie.getNodeCount() + " trie nodes");
+        return new FlatTrie(Arrays.copyOf(dawg.mask, dawg.nodes), Arrays.copyOf(dawg.first, dawg.nodes),
+                Arrays.copyOf(dawg.target, dawg.edges), Arrays.copyOf(dawg.rank, dawg.edges), root, dawg.count);
+    }
+
+    /**
+     * Post order walk, returning the canonical node number for the given trie node.
+     */
+    private int minimize(TrieNode t) {
+        int m = childMask(t);
+        int[] kids = new int[Integer.bitCount(m)];
+        int k = 0;
+        for (TrieNode child : t.map) {
+            if (child != null) {
+                kids[k++] = minimize(child);
+            }
+        }
+        if (t.isEnd()) {
+            m |= FlatTrie.END;
+            count++;
+        }
+
+        Signature sig = new Signature(m, kids);
+        Integer node = register.get(sig);
+        if (node == null) {
+            node = nodes++;
+            mask[node] = m;
+            first[node] = edges;
+            int below = t.isEnd() ? 1 : 0;
+            for (int kid : kids) {
+                rank[edges] = below;
+                target[edges++] = kid;
+                below += words[kid];
+            }
+            words[node] = below;
+            register.put(sig, node);
+        }
+        return node;
+    }
+
+    private static int childMask(TrieNode t) {
+        int m = 0;
+        for (int i = 0; i < t.map.length; i++) {
+            if (t.map[i] != null) {
+                m |= 1 << i;
+            }
+        }
+        return m;
+    }
+
+    /**
+     * End flag, child letters and canonical children of a node - all that's needed to tell two nodes apart.
+     */
+    private static class Signature {
+        final int mask;
+        final int[] kids;
+        final int hash;
+
+        Signature(int mask, int[] kids) {
+            this.mask = mask;
+            this.kids = kids;
+            this.hash = 31 * mask + Arrays.hashCode(kids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature s = (Signature) o;
+            return mask == s.mask && Arrays.equals(kids, s.kids);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package jgc;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * Rolls random boards from a set of dice, scores them, and sums up what was found.  Boards are rolled and
+ * scored in chunks on a pool, one BoardSolver.Scorer per chunk, and nothing is kept per board: each chunk adds
+ * into its own fixed size counters, which are merged as chunks finish.  Memory is the same for ten boards or
+ * ten million.
+ *
+ * Each chunk has its own seed, so a run gives the same statistics on any number of threads.
+ */
+public class DiceStats {
+
+    private static final Logger log = LogManager.getLogger(DiceStats.class);
+
+    static final int CHUNK = 10_000;    // boards per task
+    static final int WINDOW = 64;       // chunks in flight
+
+    /**
+     * Fixed width histogram.  The last bucket also holds everything past it.
+     */
+    public static class Histogram {
+        static final int BUCKETS = 100;
+
+        int width;
+        long[] counts = new long[BUCKETS];
+        long count;
+        long sum;
+        int max;
+
+        Histogram(int width) {
+            this.width = width;
+        }
+
+        void add(int value) {
+            counts[Math.min(value / width, BUCKETS - 1)]++;
+            count++;
+            sum += value;
+            max = Math.max(max, value);
+        }
+
+        void merge(Histogram h) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += h.counts[i];
+            }
+            count += h.count;
+            sum += h.sum;
+            max = Math.max(max, h.max);
+        }
+
+        public long[] getCounts() {
+            return counts;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public int getMax() {
+            return max;
+        }
+    }
+
+    /**
+     * Statistics of some boards rolled from one set of dice.
+     */
+    public static class Stats {
+        String dice;
+        int size;
+        long boards;
+        Histogram words = new Histogram(10);
+        Histogram scores = new Histogram(20);
+        Histogram maxLength = new Histogram(1);
+        long[] letterPoints = new long[Trie.LAST_CHAR - Trie.FIRST_CHAR + 1];   // see Scorer.setLetterPoints()
+
+        Stats(String dice, int size) {
+            this.dice = dice;
+            this.size = size;
+        }
+
+        // adds the board last scored
+        void add(BoardSolver.Scorer scorer) {
+            boards++;
+            words.add(scorer.getCount());
+            scores.add(scorer.getScore());
+            maxLength.add(scorer.getMaxLength());
+        }
+
+        void merge(Stats s) {
+            boards += s.boards;
+            words.merge(s.words);
+            scores.merge(s.scores);
+            maxLength.merge(s.maxLength);
+            for (int i = 0; i < letterPoints.length; i++) {
+                letterPoints[i] += s.letterPoints[i];
+            }
+        }
+
+        public String getDice() {
+            return dice;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getBoards() {
+            return boards;
+        }
+
+        public Histogram getWords() {
+            return words;
+        }
+
+        public Histogram getScores() {
+            return scores;
+        }
+
+        public Histogram getMaxLength() {
+            return maxLength;
+        }
+
+        /**
+         * @return Points of all words found, added to each letter in each word, indexed by letter - 'a'
+         */
+        public long[] getLetterPoints() {
+            return letterPoints;
+        }
+    }
+
+    private final BoardSolver solver;
+
+    /**
+     * @param solver Solver with the dictionary and minimum word length to use
+     */
+    public DiceStats(BoardSolver solver) {
+        this.solver = solver;
+    }
+
+    /**
+     * Rolls and scores the boards on the pool.
+     *
+     * @param name     Name of the dice, for the results
+     * @param dice     One die per cell of the board, see Boggle.buildDice()
+     * @param boards   Number of boards to roll
+     * @param seed     Seed of the first chunk, each chunk gets its own
+     * @param pool
+     * @param progress Given the running totals each time another tenth of the boards is done, may be null
+     * @return Totals of all boards
+     */
+    public Stats run(String name, char[][] dice, long boards, long seed, ExecutorService pool,
+                     Consumer<Stats> progress) throws InterruptedException {
+        int n = (int) Math.sqrt(dice.length);
+        if (n * n != dice.length || n < 3 || n > 7) {
+            throw new IllegalArgumentException("need one die for each cell of a 3x3 to 7x7 board");
+        }
+        long start = System.nanoTime();
+        long chunks = (boards + CHUNK - 1) / CHUNK;
+        CompletionService<Stats> completion = new ExecutorCompletionService<>(pool);
+        Stats total = new Stats(name, n);
+        long submitted = 0;
+        long nextReport = boards / 10;
+        try {
+            for (; submitted < Math.min(chunks, WINDOW); submitted++) {
+                submit(completion, name, dice, boards, seed, submitted);
+            }
+            for (long done = 0; done < chunks; done++) {
+                total.merge(completion.take().get());
+                if (submitted < chunks) {
+                    submit(completion, name, dice, boards, seed, submitted++);
+                }
+                if (progress != null && total.boards >= nextReport && total.boards < boards) {
+                    progress.accept(total);
+                    nextReport = total.boards + boards / 10;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("dice stats failed", e.getCause());
+        }
+        long nanos = System.nanoTime() - start;
+        log.info(name + " boards scored: " + boards + ", boards/sec: " + (long) (boards * 1.0e9 / Math.max(nanos, 1)));
+        return total;
+    }
+
+    private void submit(CompletionService<Stats> completion, String name, char[][] dice, long boards, long seed,
+                        long chunk) {
+        int count = (int) Math.min(CHUNK, boards - chunk * CHUNK);
+        completion.submit(() -> chunk(name, dice, count, seed + chunk));
+    }
+
+    /**
+     * One chunk of boards, on one thread.
+     */
+    Stats chunk(String name, char[][] dice, int count, long seed) {
+        Random rand = new Random(seed);
+        Stats stats = new Stats(name, (int) Math.sqrt(dice.length));
+        BoardSolver.Scorer scorer = solver.new Scorer();
+        scorer.setLetterPoints(stats.letterPoints);
+        char[] cells = new char[dice.length];
+        for (int i = 0; i < count; i++) {
+            Boggle.roll(dice, rand, cells);
+            scorer.score(cells);
+            stats.add(scorer);
+        }
+        return stats;
+    }
+}
@@ -1,12 +1,18 @@
 package jgc;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -21,41 +27,272 @@ public class Dictionary {
 
     static Logger log = LogManager.getLogger(Dictionary.class);
 
-    private static Dictionary dictionary;   // usually a singleton
+    // every dictionary loaded by size, kept in up to half the heap
+    private static final DictionaryRegistry registry =
+            new DictionaryRegistry(Runtime.getRuntime().maxMemory() / 2, Dictionary::load);
 
     public enum DictSize { S, M, L, XL, XXL }
 
+    /**
+     * How the words are stored:
+     *   TRIE - one TrieNode per character, supports the TrieNode based findWordTree() methods
+     *   FLAT - a FlatTrie compiled from the TRIE, much smaller, walked through getGraph()
+     *   DAWG - FLAT with common suffixes merged, the smallest of all, for the XL and XXL word lists
+     */
+    public enum DictEngine { TRIE, FLAT, DAWG }
+
+    static final int SNAPSHOT_MAGIC = 0x4c474f42;   // "BOGL"
+    static final int SNAPSHOT_VERSION = 2;
+    static final int SNAPSHOT_HEADER = 16;          // bytes before the FlatTrie image
+    static final int SNAPSHOT_QU_TILE = 0x100;      // or'ed into the engine of a toQuTile() snapshot
+
+    /**
+     * Stands in for a 'q' not followed by a 'u' in toSymbols().  Outside Trie.FIRST_CHAR to Trie.LAST_CHAR, so
+     * no lookup matches it.
+     */
+    static final char NO_SYMBOL = (char) (Trie.LAST_CHAR + 1);
+
     private Trie trie;
+    private WordGraph graph;    // null for the TRIE engine
     private DictSize dictSize;
+    private DictEngine engine;
+    private volatile byte[] lengths;    // word lengths by id, built on first use
+    private boolean quTile;             // 'q' in the graph stands for "qu", see toQuTile()
+    private volatile Dictionary quTileDict;     // built on first use of toQuTile()
 
-    public static synchronized Dictionary getDictionary(DictSize dictSize) {
-        if (dictionary != null && dictionary.getSize() == dictSize) {
-            return dictionary;
-        }
-        dictionary = new Dictionary(dictSize);
-        return dictionary;
+    public static Dictionary getDictionary(DictSize dictSize) {
+        return getDictionary(dictSize, DictEngine.TRIE);
+    }
+
+    /**
+     * The shared dictionary of this size and engine, loaded on first use.  See DictionaryRegistry.
+     */
+    public static Dictionary getDictionary(DictSize dictSize, DictEngine engine) {
+        return registry.get(dictSize, engine);
+    }
+
+    /**
+     * @return Where getDictionary() keeps dictionaries, for setting its heap budget
+     */
+    public static DictionaryRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Builds a new dictionary every call, bypassing the shared ones.  For benchmarks and the registry.
+     */
+    static Dictionary load(DictSize dictSize, DictEngine engine) {
+        return new Dictionary(dictSize, engine);
     }
 
     // constructor used only for solution dictionary
     public static synchronized Dictionary getDictionary(List<String> words) {
-        return new Dictionary(words);
+        return getDictionary(words, DictEngine.TRIE);
     }
 
-    private Dictionary (List<String> all) {
-        init(null, all);
+    public static synchronized Dictionary getDictionary(List<String> words, DictEngine engine) {
+        return new Dictionary(words, engine);
     }
 
-    private Dictionary (DictSize dictSize) {
-        init(dictSize, null);
+    /**
+     * Memory maps a snapshot made by writeSnapshot().  The words are walked in place from the file, so this
+     * takes about as long as opening it.
+     *
+     * @param snapshot
+     * @return
+     * @throws IOException if the file can't be read or isn't a snapshot
+     */
+    public static Dictionary getDictionary(Path snapshot) throws IOException {
+        long start = System.currentTimeMillis();
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());  // mapping outlives the channel
+        }
+        buf.order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.limit() < SNAPSHOT_HEADER || buf.getInt(0) != SNAPSHOT_MAGIC || buf.getInt(4) != SNAPSHOT_VERSION) {
+            throw new IOException("not a dictionary snapshot: " + snapshot);
+        }
+        int size = buf.getInt(8);
+        int engine = buf.getInt(12);
+        if (size < -1 || size >= DictSize.values().length) {
+            throw new IOException("bad dictionary size " + size + " in snapshot: " + snapshot);
+        }
+        if ((engine & ~SNAPSHOT_QU_TILE) < 0 || (engine & ~SNAPSHOT_QU_TILE) >= DictEngine.values().length) {
+            throw new IOException("bad dictionary engine " + engine + " in snapshot: " + snapshot);
+        }
+        Dictionary dict = new Dictionary();
+        dict.dictSize = (size < 0) ? null : DictSize.values()[size];
+        dict.engine = DictEngine.values()[engine & ~SNAPSHOT_QU_TILE];
+        dict.quTile = (engine & SNAPSHOT_QU_TILE) != 0;
+        try {
+            dict.graph = new MappedTrie(buf, SNAPSHOT_HEADER);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + ": " + snapshot);
+        }
+        long end = System.currentTimeMillis();
+        log.debug("time to map dict: " + (end - start) + " ms, dict size: " + dict.getTrieCount() + ", engine: " + dict.engine);
+        return dict;
+    }
+
+    private Dictionary () {
+    }
+
+    private Dictionary (List<String> all, DictEngine engine) {
+        init(null, engine, all);
+    }
+
+    private Dictionary (DictSize dictSize, DictEngine engine) {
+        init(dictSize, engine, null);
     }
 
     public DictSize getSize() {
         return dictSize;
     }
 
+    public DictEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return True if 'q' in the graph stands for "qu", see toQuTile()
+     */
+    public boolean isQuTile() {
+        return quTile;
+    }
+
+    /**
+     * @return The toQuTile() dictionary if it's been built, else null
+     */
+    Dictionary getBuiltQuTile() {
+        return quTileDict;
+    }
+
+    /**
+     * The same words for a board of Qu dice, where a 'q' cell always reads "qu".  Each "qu" is collapsed into the
+     * single symbol 'q' as the graph is built, and words with a 'q' not followed by a 'u' are dropped, as they
+     * can't be played.  A solver then steps onto a 'q' cell with one lookup, instead of also trying an optional
+     * 'u' after it.
+     *
+     * Words and their lengths are still spelled with "qu", and strings are looked up through toSymbols().
+     * Built on first use and kept with this dictionary.
+     *
+     * @return
+     */
+    public Dictionary toQuTile() {
+        if (quTile) {
+            return this;
+        }
+        Dictionary d = quTileDict;
+        if (d == null) {
+            synchronized (this) {
+                d = quTileDict;
+                if (d == null) {
+                    List<String> words = new ArrayList<>();
+                    for (String word : getWords()) {
+                        String collapsed = collapseQu(word);
+                        if (collapsed != null) {
+                            words.add(collapsed);
+                        }
+                    }
+                    d = new Dictionary(words, engine);
+                    d.dictSize = dictSize;
+                    d.quTile = true;
+                    quTileDict = d;
+                }
+            }
+        }
+        return d;
+    }
+
+    /**
+     * The word or prefix as followed in the graph: unchanged, or for a toQuTile() dictionary with each "qu" as
+     * 'q', and any other 'q' as NO_SYMBOL.
+     *
+     * @param word
+     * @param prefix True if a 'q' at the end may still be followed by its 'u'
+     * @return
+     */
+    public CharSequence toSymbols(CharSequence word, boolean prefix) {
+        if (!quTile || word.length() == 0) {
+            return word;
+        }
+        StringBuilder buf = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c == 'q') {
+                if (i + 1 < word.length() && word.charAt(i + 1) == 'u') {
+                    i++;
+                }
+                else if (!prefix || i + 1 < word.length()) {
+                    c = NO_SYMBOL;
+                }
+            }
+            buf.append(c);
+        }
+        return buf;
+    }
+
+    // "quit" to "qit", or null if some 'q' isn't followed by a 'u'
+    static String collapseQu(String word) {
+        int q = word.indexOf('q');
+        if (q < 0) {
+            return word;
+        }
+        StringBuilder buf = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            buf.append(c);
+            if (c == 'q') {
+                if (i + 1 == word.length() || word.charAt(i + 1) != 'u') {
+                    return null;
+                }
+                i++;
+            }
+        }
+        return buf.toString();
+    }
+
+    // "qit" to "quit"
+    static String expandQu(String word) {
+        return (word.indexOf('q') < 0) ? word : word.replace("q", "qu");
+    }
+
+    /**
+     * @return The flat word graph, or null when using the TRIE engine
+     */
+    public WordGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return The words as a WordGraph whatever the engine - the TRIE engine is wrapped by Trie.asGraph()
+     */
+    public WordGraph getWordGraph() {
+        return (graph != null) ? graph : trie.asGraph();
+    }
+
+    /**
+     * @return Root of the numbered TrieNode tree, for solvers which walk it directly, or null if this dictionary
+     *         keeps none.  See getWordGraph().
+     */
+    TrieNode getTrieRoot() {
+        if (trie == null) {
+            return null;
+        }
+        trie.asGraph();     // numbers the nodes
+        return trie.getRoot();
+    }
+
     // TEST ONLY
     protected int getTrieCount() {
-        return trie.getCount();
+        return (graph != null) ? graph.getCount() : trie.getCount();
+    }
+
+    /**
+     * @return Approximate heap used by the words, in bytes
+     */
+    public long getMemoryBytes() {
+        return (graph != null) ? graph.getMemoryBytes() : trie.getMemoryBytes();
     }
 
     /**
@@ -86,14 +323,13 @@ public class Dictionary {
      * @param dictSize
      * @param all
      */
-    private void init(DictSize dictSize, List<String> all) {
+    private void init(DictSize dictSize, DictEngine engine, List<String> all) {
         long start = System.currentTimeMillis();
         this.dictSize = dictSize;
+        this.engine = engine;
         if (all == null) {
             String dictPath = getDictPath(dictSize);
             this.trie = readDictionary(dictPath);
-            long end = System.currentTimeMillis();
-            log.debug("time to init dict: " + (end - start) + " ms.");
         }
         else {
             this.trie = new Trie();
@@ -101,7 +337,22 @@ public class Dictionary {
                 this.trie.insert(s);
             }
         }
-        log.debug("dict size: " + this.trie.getCount());
+        if (engine == DictEngine.FLAT) {
+            this.graph = FlatTrie.compile(this.trie);
+            this.trie = null;
+        }
+        else if (engine == DictEngine.DAWG) {
+            this.graph = Dawg.compile(this.trie);
+            this.trie = null;
+        }
+        else {
+            this.trie.number();
+        }
+        if (all == null) {
+            long end = System.currentTimeMillis();
+            log.debug("time to init dict: " + (end - start) + " ms.");
+        }
+        log.debug("dict size: " + getTrieCount() + ", engine: " + engine + ", approx heap: " + getMemoryBytes() + " bytes");
     }
 
     /**
@@ -111,24 +362,20 @@ public class Dictionary {
      * - ignore contractions, or any word with apostrophes, e.g. can't
      * - anything with a cedilla (ç), because what are they anyway?  Drop 'em.
      *
+     * The file is read as bytes and cleaned without making Strings, on all cores - see DictionaryLoader.
+     *
      * @param fname
      * @return
      */
     private Trie readDictionary(String fname) {
-        Trie trie = new Trie();
         try {
-            Files.lines(Paths.get(fname)).forEach(word -> {
-                word = checkWord(word);
-                if (StringUtils.isNotEmpty(word)) {
-                    trie.insert(word);
-                }
-            });
+            return DictionaryLoader.load(Paths.get(fname));
         } catch(IOException e){
             // TODO Auto-generated catch block
             e.printStackTrace();
         }
 
-        return trie;
+        return new Trie();
     }
 
     /**
@@ -164,10 +411,13 @@ public class Dictionary {
      * support much of lower-cased Unicode, which would add perhaps 400MB to memory
      * requirements.
      *
+     * DictionaryLoader.fold() does the same straight from UTF-8 bytes.  This String version is the reference
+     * for its tests.
+     *
      * @param word
      * @return Cleaned up word, or null if the word is not acceptable
      */
-    private String checkWord(String word) {
+    static String checkWord(String word) {
         char[] buf = word.toCharArray();
         boolean changed = false;
         for (int i = 0; i < buf.length; i++) {
@@ -233,10 +483,11 @@ public class Dictionary {
 
     /**
      * Returns a Trie node matching the given string.  This is used to determine whether the string matches a
-     * partial word, or is a valid word unto itself.
+     * partial word, or is a valid word unto itself.  TRIE engine only, see findWordNode() for the others.
      *
      * @param word
      * @return
+     * @throws IllegalStateException if the engine isn't TRIE
      */
     public TrieNode findWordTree(String word) {
         return findWordTree(null, (char)0, word);
@@ -246,7 +497,7 @@ public class Dictionary {
     }
 
     public TrieNode findWordTree(TrieNode tnode, char[] word) {
-        return trie.findNode(tnode, word, (char)0);
+        return getTrie().findNode(tnode, word, (char)0);
     }
 
     /**
@@ -259,14 +510,119 @@ public class Dictionary {
      * @param c - character to traverse
      * @param word - optional word to traverse
      * @return
+     * @throws IllegalStateException if the engine isn't TRIE
      */
     public TrieNode findWordTree(TrieNode tnode, char c, String word) {
         char[] a = (word != null) ? word.toCharArray() : null;
-        return trie.findNode(tnode, a, c);
+        return getTrie().findNode(tnode, a, c);
     }
 
+    // the TrieNode tree, which only the TRIE engine keeps
+    private Trie getTrie() {
+        if (trie == null) {
+            throw new IllegalStateException(
+                    "only TRIE dictionaries built from words keep TrieNodes, use findWordNode()");
+        }
+        return trie;
+    }
+
+    /**
+     * Graph equivalent of findWordTree(), for engines other than TRIE.
+     *
+     * @param node - current graph node
+     * @param c - character to traverse
+     * @return the next node, or WordGraph.NONE
+     */
+    public int findWordTree(int node, char c) {
+        return graph.child(node, c);
+    }
+
+    public int findWordNode(String word) {
+        return graph.findNode(word);
+    }
+
+    /**
+     * @param id Word id, its index in the sorted list of all words
+     * @return
+     */
+    public String getWord(int id) {
+        String word = (graph != null) ? graph.getWord(id) : trie.getWord(id);
+        return quTile ? expandQu(word) : word;
+    }
+
+    /**
+     * Length of a word without spelling it out, so a solution can be scored from its ids alone.  The table,
+     * a byte per word, is built by one walk of all words on first use.  The 'q' of a toQuTile() dictionary
+     * counts as two letters.
+     *
+     * @param id Word id
+     * @return
+     */
+    public int getWordLength(int id) {
+        byte[] l = lengths;
+        if (l == null) {
+            WordGraph g = getWordGraph();
+            l = new byte[g.getCount()];
+            wordLengths(g, g.root(), 0, l, new int[1], quTile);
+            lengths = l;
+        }
+        return l[id];
+    }
+
+    // words are met in id order, so the next end node is always the next id
+    private static void wordLengths(WordGraph g, int node, int k, byte[] lengths, int[] id, boolean quTile) {
+        if (g.isEnd(node)) {
+            lengths[id[0]++] = (byte) Math.min(k, Byte.MAX_VALUE);
+        }
+        for (char c = Trie.FIRST_CHAR; c <= Trie.LAST_CHAR; c++) {
+            int next = g.child(node, c);
+            if (next != WordGraph.NONE) {
+                wordLengths(g, next, k + ((quTile && c == 'q') ? 2 : 1), lengths, id, quTile);
+            }
+        }
+    }
+
+    /**
+     * Saves the words for getDictionary(Path).  The TRIE engine has no flat form, so it's written as FLAT.
+     *
+     * @param snapshot
+     * @throws IOException
+     */
+    public void writeSnapshot(Path snapshot) throws IOException {
+        FlatTrie flat;
+        DictEngine flatEngine = engine;
+        if (graph instanceof FlatTrie) {
+            flat = (FlatTrie) graph;
+        }
+        else if (trie != null) {
+            flat = FlatTrie.compile(trie);
+            flatEngine = DictEngine.FLAT;
+        }
+        else {
+            throw new IllegalStateException("dictionary is already a snapshot");
+        }
+        try (FileChannel ch = FileChannel.open(snapshot, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION);
+            header.putInt((dictSize == null) ? -1 : dictSize.ordinal())
+                    .putInt(flatEngine.ordinal() | (quTile ? SNAPSHOT_QU_TILE : 0));
+            header.flip();
+            while (header.hasRemaining()) {
+                ch.write(header);
+            }
+            flat.write(ch);
+        }
+        log.debug("wrote snapshot: " + snapshot + ", " + Files.size(snapshot) + " bytes");
+    }
 
     protected String[] getWords() {
-        return trie.extractWords();
+        String[] words = (graph != null) ? graph.extractWords() : trie.extractWords();
+        if (quTile) {
+            for (int i = 0; i < words.length; i++) {
+                words[i] = expandQu(words[i]);
+            }
+        }
+        return words;
     }
 }
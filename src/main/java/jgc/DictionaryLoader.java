@@ -0,0 +1,196 @@
+package jgc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static jgc.Trie.FIRST_CHAR;
+import static jgc.Trie.LAST_CHAR;
+
+/**
+ * Reads a UTF-8 word file into a Trie without making a String per line.  The file is memory mapped and split
+ * into byte ranges at line breaks.  Each range is cleaned on its own thread straight from the bytes: accented
+ * vowels are folded to plain ASCII and every other word is dropped, following Dictionary.checkWord().  Clean
+ * words are copied into one reusable buffer per first letter, and then one subtrie per letter is built
+ * concurrently from those buffers and grafted together.
+ *
+ * The garbage made is a few growable buffers per thread, however long the file is.  The only objects made per
+ * word are the nodes kept by the Trie.
+ */
+class DictionaryLoader {
+
+    private static final int LETTERS = LAST_CHAR - FIRST_CHAR + 1;
+    private static final int MIN_CHUNK = 64 * 1024;
+
+    /*
+     * Latin-1 letters from U+00C0 to U+00FF, which are 0xC3 0x80 to 0xC3 0xBF in UTF-8, indexed by the second
+     * byte - 0x80.  0 if the letter isn't allowed.
+     */
+    private static final byte[] FOLD = new byte[64];
+    static {
+        fold("åäàáâã", 'a');
+        fold("ëèéê", 'e');
+        fold("ïìíî", 'i');
+        fold("ñ", 'n');
+        fold("öøòóôõ", 'o');
+        fold("üúùû", 'u');
+    }
+
+    private static void fold(String accented, char plain) {
+        for (char c : accented.toCharArray()) {
+            FOLD[c - 0xC0] = (byte) plain;
+        }
+    }
+
+    private DictionaryLoader() {
+    }
+
+    /**
+     * @param file UTF-8 word list, one word per line
+     * @return
+     * @throws IOException
+     */
+    static Trie load(Path file) throws IOException {
+        MappedByteBuffer buf;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());  // mapping outlives the channel
+        }
+        int[] bounds = split(buf, Runtime.getRuntime().availableProcessors());
+
+        // clean each byte range into per letter buffers
+        List<Chunk> chunks = IntStream.range(0, bounds.length - 1).parallel()
+                .mapToObj(i -> clean(buf, bounds[i], bounds[i + 1]))
+                .collect(Collectors.toList());
+
+        // build each letter's subtrie from that letter's buffer in every chunk
+        List<Trie> parts = IntStream.range(0, LETTERS).parallel()
+                .mapToObj(letter -> build(chunks, letter))
+                .collect(Collectors.toList());
+
+        Trie trie = new Trie();
+        for (Trie part : parts) {
+            trie.graft(part);
+        }
+        return trie;
+    }
+
+    /**
+     * Splits the buffer into about n ranges which each start at the beginning of a line.
+     *
+     * @return Range boundaries, from 0 to buf.limit()
+     */
+    static int[] split(ByteBuffer buf, int n) {
+        int limit = buf.limit();
+        int size = Math.max(MIN_CHUNK, limit / Math.max(n, 1) + 1);
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int pos = size;
+        while (pos < limit) {
+            while (pos < limit && buf.get(pos - 1) != '\n') {
+                pos++;
+            }
+            if (pos < limit) {
+                bounds.add(pos);
+            }
+            pos += size;
+        }
+        bounds.add(limit);
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Clean words of one thread, grouped by first letter.  Each letter's words are stored back to back, each
+     * preceded by its length.
+     */
+    static class Chunk {
+        final byte[][] words = new byte[LETTERS][];
+        final int[] sizes = new int[LETTERS];
+
+        void add(byte[] word, int len) {
+            int letter = word[0] - FIRST_CHAR;
+            byte[] b = words[letter];
+            int size = sizes[letter];
+            if (b == null) {
+                b = new byte[1024];
+            }
+            else if (size + len + 1 > b.length) {
+                b = Arrays.copyOf(b, Math.max(b.length * 2, size + len + 1));
+            }
+            b[size++] = (byte) len;
+            System.arraycopy(word, 0, b, size, len);
+            sizes[letter] = size + len;
+            words[letter] = b;
+        }
+    }
+
+    static Chunk clean(ByteBuffer buf, int start, int end) {
+        Chunk chunk = new Chunk();
+        byte[] word = new byte[Byte.MAX_VALUE];
+        int lineStart = start;
+        for (int pos = start; pos <= end; pos++) {
+            if (pos == end || buf.get(pos) == '\n') {
+                int len = fold(buf, lineStart, pos, word);
+                if (len > 0) {
+                    chunk.add(word, len);
+                }
+                lineStart = pos + 1;
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Byte version of Dictionary.checkWord(): copies the line from start to end into word, folding accented
+     * vowels to plain ASCII.
+     *
+     * @return Length of the clean word, or 0 if it isn't acceptable
+     */
+    static int fold(ByteBuffer buf, int start, int end, byte[] word) {
+        if (end > start && buf.get(end - 1) == '\r') {
+            end--;
+        }
+        int len = 0;
+        for (int pos = start; pos < end; pos++) {
+            if (len == word.length) {
+                return 0;       // too long to be a Boggle word
+            }
+            byte b = buf.get(pos);
+            if (b >= FIRST_CHAR && b <= LAST_CHAR) {
+                word[len++] = b;
+            }
+            else if (b == (byte) 0xC3 && pos + 1 < end && (buf.get(pos + 1) & 0xC0) == 0x80
+                    && FOLD[buf.get(pos + 1) & 0x3F] != 0) {
+                word[len++] = FOLD[buf.get(++pos) & 0x3F];
+            }
+            else {
+                return 0;       // proper nouns, contractions, anything else foreign
+            }
+        }
+        return len;
+    }
+
+    static Trie build(List<Chunk> chunks, int letter) {
+        Trie trie = new Trie();
+        char[] word = new char[Byte.MAX_VALUE];
+        for (Chunk chunk : chunks) {
+            byte[] b = chunk.words[letter];
+            int size = chunk.sizes[letter];
+            for (int pos = 0; pos < size; ) {
+                int len = b[pos++];
+                for (int i = 0; i < len; i++) {
+                    word[i] = (char) b[pos++];
+                }
+                trie.insert(word, len);
+            }
+        }
+        return trie;
+    }
+}
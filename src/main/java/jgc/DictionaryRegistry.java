@@ -0,0 +1,271 @@
+package jgc;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.BiFunction;
+
+/**
+ * Dictionaries by size and engine, each loaded on first use and shared after that.  Threads asking for a
+ * dictionary which is still loading wait for that load instead of starting another.
+ *
+ * Loaded dictionaries are kept while their getMemoryBytes(), with that of any toQuTile() copy built from them,
+ * add up to no more than the heap budget.  Past that the least recently used are let go, though never the one
+ * just asked for or a pinned one, so a single dictionary bigger than the budget is still kept.  A dictionary let
+ * go stays usable by whoever holds it, and is loaded again the next time it's asked for.  Anything else keeping
+ * it, such as a SolutionCache, should listen for evictions and let go of it too, or the budget is only kept on
+ * paper.  Whoever holds one for good, such as a game or server, should pin() it instead, as letting go of it
+ * frees nothing and only means loading a second copy the next time it's asked for.
+ *
+ * Thread safe.
+ */
+public class DictionaryRegistry {
+
+    private static final Logger log = LogManager.getLogger(DictionaryRegistry.class);
+
+    private final BiFunction<Dictionary.DictSize, Dictionary.DictEngine, Dictionary> loader;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);   // LRU, guarded by this
+    private final Set<EvictionListener> listeners = Collections.newSetFromMap(new WeakHashMap<>());  // ditto
+    private long budget;
+    private long loads;
+    private long evictions;
+
+    /**
+     * Told of each dictionary the registry lets go.
+     */
+    public interface EvictionListener {
+        /**
+         * Called on the thread whose load went over budget, outside the registry's lock.
+         *
+         * @param dict The dictionary let go
+         */
+        void evicted(Dictionary dict);
+    }
+
+    /**
+     * @param budget Heap bytes to keep dictionaries in
+     * @param loader Builds a dictionary, called at most once at a time for each size and engine
+     */
+    public DictionaryRegistry(long budget, BiFunction<Dictionary.DictSize, Dictionary.DictEngine, Dictionary> loader) {
+        this.loader = loader;
+        setBudget(budget);
+    }
+
+    /**
+     * Returns the dictionary, loading it on this thread if nobody has yet, or waiting for another thread which
+     * is loading it.
+     *
+     * @param size
+     * @param engine
+     * @return
+     */
+    public Dictionary get(Dictionary.DictSize size, Dictionary.DictEngine engine) {
+        Key key = new Key(size, engine);
+        Entry entry;
+        boolean loading = false;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry(new FutureTask<>(() -> loader.apply(size, engine)));
+                entries.put(key, entry);
+                loads++;
+                loading = true;
+            }
+        }
+        if (loading) {
+            entry.task.run();
+        }
+
+        Dictionary dict;
+        try {
+            dict = entry.task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while loading dictionary " + key, e);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                entries.remove(key, entry);     // try again next time
+            }
+            throw new IllegalStateException("can't load dictionary " + key, e.getCause());
+        }
+
+        if (loading) {
+            List<Dictionary> evicted;
+            List<EvictionListener> told;
+            synchronized (this) {
+                entry.dict = dict;
+                evicted = evict(entry);
+                told = new ArrayList<>(listeners);
+            }
+            for (Dictionary d : evicted) {
+                for (EvictionListener listener : told) {
+                    listener.evicted(d);
+                }
+            }
+        }
+        return dict;
+    }
+
+    /**
+     * Keeps a dictionary however far over budget, until unpinned.  Pins are counted, so each pin() needs its own
+     * unpin().  Does nothing for a dictionary which isn't kept here, such as one read from a snapshot.
+     *
+     * @param dict A dictionary from get(), or its toQuTile() copy
+     */
+    public synchronized void pin(Dictionary dict) {
+        Entry entry = find(dict);
+        if (entry != null) {
+            entry.pins++;
+        }
+    }
+
+    /**
+     * Undoes one pin(), leaving the dictionary to be let go when next over budget.
+     *
+     * @param dict A dictionary from get(), or its toQuTile() copy
+     */
+    public synchronized void unpin(Dictionary dict) {
+        Entry entry = find(dict);
+        if (entry != null && entry.pins > 0) {
+            entry.pins--;
+        }
+    }
+
+    /**
+     * The listener is held weakly, so it's dropped once nothing else holds it - a lambda needs keeping too.
+     *
+     * @param listener Told of every dictionary let go from now on
+     */
+    public synchronized void addEvictionListener(EvictionListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
+    }
+
+    /**
+     * @param budget Heap bytes to keep dictionaries in, takes effect on the next load
+     */
+    public synchronized void setBudget(long budget) {
+        if (budget <= 0) {
+            throw new IllegalArgumentException("budget must be > 0");
+        }
+        this.budget = budget;
+    }
+
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return Number of dictionaries kept or loading
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Heap used by the dictionaries kept
+     */
+    public synchronized long getMemoryBytes() {
+        return entries.values().stream().mapToLong(Entry::getMemoryBytes).sum();
+    }
+
+    public synchronized long getLoads() {
+        return loads;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "size: " + size() + ", bytes: " + getMemoryBytes() + "/" + budget + ", loads: " + loads +
+                ", evictions: " + evictions;
+    }
+
+    // the entry holding dict or its Qu tile copy, or null, without counting as a use
+    private Entry find(Dictionary dict) {
+        for (Entry e : entries.values()) {
+            if (e.dict != null && (e.dict == dict || e.dict.getBuiltQuTile() == dict)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    // lets go of the least recently used loaded dictionaries, other than keep and those pinned, until under budget
+    private List<Dictionary> evict(Entry keep) {
+        List<Dictionary> evicted = new ArrayList<>();
+        long total = getMemoryBytes();
+        for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext() && total > budget; ) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getValue() != keep && e.getValue().dict != null && e.getValue().pins == 0) {
+                long bytes = e.getValue().getMemoryBytes();
+                log.info("dropping dictionary " + e.getKey() + ", " + bytes + " bytes");
+                total -= bytes;
+                evicted.add(e.getValue().dict);
+                it.remove();
+                evictions++;
+            }
+        }
+        return evicted;
+    }
+
+    private static final class Entry {
+        final FutureTask<Dictionary> task;
+        Dictionary dict;    // null until loaded
+        int pins;
+
+        Entry(FutureTask<Dictionary> task) {
+            this.task = task;
+        }
+
+        // 0 until loaded.  A Qu tile copy is counted once built, so from the next load on.
+        long getMemoryBytes() {
+            if (dict == null) {
+                return 0;
+            }
+            Dictionary quTile = dict.getBuiltQuTile();
+            return dict.getMemoryBytes() + ((quTile != null) ? quTile.getMemoryBytes() : 0);
+        }
+    }
+
+    private static final class Key {
+        private final Dictionary.DictSize size;
+        private final Dictionary.DictEngine engine;
+
+        Key(Dictionary.DictSize size, Dictionary.DictEngine engine) {
+            this.size = size;
+            this.engine = engine;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return size == k.size && engine == k.engine;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, engine);
+        }
+
+        @Override
+        public String toString() {
+            return size + "/" + engine;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package jgc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import static jgc.Trie.FIRST_CHAR;
+
+/**
+ * Trie stored in a couple of flat int arrays instead of one object per character.  Nodes are numbered in
+ * breadth first order, so all children of a node are contiguous and can be found by index:
+ *
+ *    mask[node]  - bit (c - 'a') is set for each child c, the high bit marks the end of a word
+ *    first[node] - edge number of the first (lowest lettered) child
+ *
+ * The edge for c is first[node] plus the number of children lettered below c, which is a single bitCount().
+ * In a plain trie the edge number is also the child's node number.  This takes 8 bytes per node, versus well
+ * over 100 for a TrieNode and its 26 slot map.
+ *
+ * A minimized graph (see Dawg) shares nodes between parents, so it adds a third array, target[edge], holding
+ * the child's node number.
+ *
+ * Words are numbered in sorted order.  rank[edge] is the number of words below the parent which sort before
+ * the words below the edge, including the parent's own word.  Summing ranks along a path gives the id of the
+ * path's word, which works even when nodes are shared.
+ *
+ * Built by compiling a finished Trie, and read only afterwards.  May be saved with write() and later walked
+ * in place from a memory mapped file by MappedTrie.
+ */
+public class FlatTrie implements WordGraph {
+
+    static final int END = 1 << 31;
+
+    private final int[] mask;
+    private final int[] first;
+    private final int[] target;     // null when edge number == node number
+    private final int[] rank;
+    private final int root;
+    private final int count;
+
+    private FlatTrie(int[] mask, int[] first, int[] rank, int count) {
+        this(mask, first, null, rank, 0, count);
+    }
+
+    FlatTrie(int[] mask, int[] first, int[] target, int[] rank, int root, int count) {
+        this.mask = mask;
+        this.first = first;
+        this.target = target;
+        this.rank = rank;
+        this.root = root;
+        this.count = count;
+    }
+
+    /**
+     * Copies the given Trie into flat arrays.  The Trie may be discarded afterwards.
+     *
+     * @param trie
+     * @return
+     */
+    public static FlatTrie compile(Trie trie) {
+        int size = trie.getNodeCount();
+        int[] mask = new int[size];
+        int[] first = new int[size];
+        int[] rank = new int[size];
+        int count = 0;
+        trie.number();
+
+        Deque<TrieNode> queue = new ArrayDeque<>();
+        queue.add(trie.getRoot());
+        int node = 0;
+        int next = 1;   // next free node number, root is 0
+        while (!queue.isEmpty()) {
+            TrieNode t = queue.remove();
+            int m = 0;
+            if (t.isEnd()) {
+                m = END;
+                count++;
+            }
+            first[node] = next;
+            for (int i = 0; i < t.map.length; i++) {
+                if (t.map[i] != null) {
+                    m |= 1 << i;
+                    queue.add(t.map[i]);
+                    rank[next++] = t.map[i].getId() - t.getId();
+                }
+            }
+            mask[node++] = m;
+        }
+        return new FlatTrie(mask, first, rank, count);
+    }
+
+    @Override
+    public int root() {
+        return root;
+    }
+
+    @Override
+    public int child(int node, char c) {
+        int m = mask[node];
+        int bit = 1 << (c - FIRST_CHAR);
+        if ((m & bit) == 0) {
+            return NONE;
+        }
+        int edge = first[node] + Integer.bitCount(m & (bit - 1));
+        return (target == null) ? edge : target[edge];
+    }
+
+    @Override
+    public int rank(int node, char c) {
+        int m = mask[node];
+        int bit = 1 << (c - FIRST_CHAR);
+        return rank[first[node] + Integer.bitCount(m & (bit - 1))];
+    }
+
+    @Override
+    public boolean isEnd(int node) {
+        return (mask[node] & END) != 0;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return mask.length;
+    }
+
+    @Override
+    public long getMemoryBytes() {
+        long bytes = 3 * 16 + 4L * (mask.length + first.length + rank.length);
+        return (target == null) ? bytes : bytes + 16 + 4L * target.length;
+    }
+
+    /**
+     * Writes the graph in the layout MappedTrie expects, as little endian ints:
+     *   node count, edge count (-1 if there is no target array), root, word count, mask[], first[], target[],
+     *   rank[]
+     *
+     * @param out
+     * @throws IOException
+     */
+    void write(WritableByteChannel out) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer ints = buf.asIntBuffer();
+        int[] header = {mask.length, (target == null) ? -1 : target.length, root, count};
+        for (int[] a : new int[][] {header, mask, first, (target == null) ? new int[0] : target, rank}) {
+            for (int off = 0; off < a.length; ) {
+                int len = Math.min(ints.remaining(), a.length - off);
+                ints.put(a, off, len);
+                off += len;
+                if (!ints.hasRemaining()) {
+                    flush(out, buf, ints);
+                }
+            }
+        }
+        flush(out, buf, ints);
+    }
+
+    private static void flush(WritableByteChannel out, ByteBuffer buf, IntBuffer ints) throws IOException {
+        buf.clear();
+        buf.limit(ints.position() * 4);
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+        buf.clear();
+        ints.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package jgc;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+import static jgc.Trie.FIRST_CHAR;
+
+/**
+ * A FlatTrie walked in place from a buffer, normally a memory mapped snapshot file written by
+ * FlatTrie.write().  Nothing is copied onto the heap, so opening is nearly free, pages are only read as the
+ * graph is walked, and they're shared by every JVM on the host which maps the same file.
+ *
+ * Absolute gets don't move the buffer's position, so this is as thread safe as FlatTrie.
+ */
+public class MappedTrie implements WordGraph {
+
+    private final IntBuffer ints;
+    private final int nodes;
+    private final int edges;    // -1 if there is no target array
+    private final int root;
+    private final int count;
+    private final int maskOff;
+    private final int firstOff;
+    private final int targetOff;
+    private final int rankOff;
+
+    /**
+     * @param buf Buffer holding a FlatTrie.write() image, starting at offset
+     * @param offset Byte offset of the image, must be a multiple of 4
+     */
+    public MappedTrie(ByteBuffer buf, int offset) {
+        ByteBuffer b = buf.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        b.position(offset);
+        this.ints = b.asIntBuffer();
+        this.nodes = ints.get(0);
+        this.edges = ints.get(1);
+        this.root = ints.get(2);
+        this.count = ints.get(3);
+        this.maskOff = 4;
+        this.firstOff = maskOff + nodes;
+        this.targetOff = firstOff + nodes;
+        this.rankOff = targetOff + Math.max(edges, 0);
+        if (nodes <= 0 || root < 0 || root >= nodes || rankOff + ((edges < 0) ? nodes : edges) > ints.limit()) {
+            throw new IllegalArgumentException("corrupt or truncated dictionary snapshot");
+        }
+    }
+
+    @Override
+    public int root() {
+        return root;
+    }
+
+    @Override
+    public int child(int node, char c) {
+        int m = ints.get(maskOff + node);
+        int bit = 1 << (c - FIRST_CHAR);
+        if ((m & bit) == 0) {
+            return NONE;
+        }
+        int edge = ints.get(firstOff + node) + Integer.bitCount(m & (bit - 1));
+        return (edges < 0) ? edge : ints.get(targetOff + edge);
+    }
+
+    @Override
+    public int rank(int node, char c) {
+        int m = ints.get(maskOff + node);
+        int bit = 1 << (c - FIRST_CHAR);
+        return ints.get(rankOff + ints.get(firstOff + node) + Integer.bitCount(m & (bit - 1)));
+    }
+
+    @Override
+    public boolean isEnd(int node) {
+        return (ints.get(maskOff + node) & FlatTrie.END) != 0;
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @return 0 - the pages belong to the file cache, not the heap
+     */
+    @Override
+    public long getMemoryBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,139 @@
+package jgc;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.terminal.Terminal;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Off-screen model of the terminal.  Callers draw the next frame into it, and render() compares that with what
+ * was last sent to the terminal and sends only the cells which changed, with one flush.  Runs of changed cells
+ * on a row are sent after a single cursor move, bridging short gaps of unchanged cells, which take fewer bytes
+ * to send again than a cursor move.  Modifiers are only switched where they change.
+ *
+ * Thread safe, as the game timer draws the clock while the game loop draws everything else.
+ */
+class ScreenBuffer {
+
+    static final int GAP = 4;   // unchanged cells rewritten rather than moving the cursor over them
+
+    private final int width;
+    private final int height;
+    private final char[] chars;         // next frame
+    private final int[] mods;           // SGR bit mask of each cell in the next frame
+    private final char[] shownChars;    // what the terminal shows
+    private final int[] shownMods;
+    private int modifiers;              // applied to what's drawn from now on
+
+    ScreenBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.chars = new char[width * height];
+        this.mods = new int[width * height];
+        this.shownChars = new char[width * height];
+        this.shownMods = new int[width * height];
+        Arrays.fill(chars, ' ');
+        Arrays.fill(shownChars, ' ');
+    }
+
+    synchronized void enableModifiers(SGR... sgrs) {
+        for (SGR sgr : sgrs) {
+            modifiers |= 1 << sgr.ordinal();
+        }
+    }
+
+    synchronized void disableModifiers(SGR... sgrs) {
+        for (SGR sgr : sgrs) {
+            modifiers &= ~(1 << sgr.ordinal());
+        }
+    }
+
+    /**
+     * Draws the string from (x, y) with the current modifiers, cut off at the right edge.
+     */
+    synchronized void putString(int x, int y, String s) {
+        if (y < 0 || y >= height) {
+            return;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            int col = x + i;
+            if (col >= width) {
+                break;
+            }
+            if (col >= 0) {
+                chars[y * width + col] = s.charAt(i);
+                mods[y * width + col] = modifiers;
+            }
+        }
+    }
+
+    synchronized char getChar(int x, int y) {
+        return chars[y * width + x];
+    }
+
+    /**
+     * Blanks the frame, and the terminal with it.
+     */
+    synchronized void clear(Terminal terminal) throws IOException {
+        Arrays.fill(chars, ' ');
+        Arrays.fill(mods, 0);
+        Arrays.fill(shownChars, ' ');
+        Arrays.fill(shownMods, 0);
+        terminal.clearScreen();
+    }
+
+    /**
+     * Sends the cells changed since the last render, leaves the cursor at (cursorX, cursorY), and flushes.
+     *
+     * @return Number of cells sent
+     */
+    synchronized int render(Terminal terminal, int cursorX, int cursorY) throws IOException {
+        int sent = 0;
+        int current = 0;    // modifiers on at the terminal
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!changed(y * width + x)) {
+                    x++;
+                    continue;
+                }
+                int end = x;    // last changed cell of this run
+                for (int i = x + 1; i < width && i - end <= GAP; i++) {
+                    if (changed(y * width + i)) {
+                        end = i;
+                    }
+                }
+                terminal.setCursorPosition(x, y);
+                for (int k = y * width + x; x <= end; x++, k++) {
+                    current = switchModifiers(terminal, current, mods[k]);
+                    terminal.putCharacter(chars[k]);
+                    shownChars[k] = chars[k];
+                    shownMods[k] = mods[k];
+                    sent++;
+                }
+            }
+        }
+        switchModifiers(terminal, current, 0);
+        terminal.setCursorPosition(cursorX, cursorY);
+        terminal.flush();
+        return sent;
+    }
+
+    private boolean changed(int k) {
+        return chars[k] != shownChars[k] || mods[k] != shownMods[k];
+    }
+
+    private static int switchModifiers(Terminal terminal, int current, int wanted) throws IOException {
+        for (SGR sgr : SGR.values()) {
+            int bit = 1 << sgr.ordinal();
+            if ((current & bit) != 0 && (wanted & bit) == 0) {
+                terminal.disableSGR(sgr);
+            }
+            else if ((current & bit) == 0 && (wanted & bit) != 0) {
+                terminal.enableSGR(sgr);
+            }
+        }
+        return wanted;
+    }
+}
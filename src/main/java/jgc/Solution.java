@@ -0,0 +1,158 @@
+package jgc;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of words found on a board, returned by BoardSolver.  Words are kept as their ids in the
+ * dictionary they were found in, and only spelled out on first use of getWords() - counts and scores don't
+ * need them.  Ids are in sorted order, so walking them gives an already sorted list.
+ */
+public class Solution {
+
+    private final Dictionary dict;
+    private final WordGraph graph;
+    private final BitSet ids;
+    private volatile List<String> words;    // built on first use, then never changed
+
+    /**
+     * @param dict Dictionary the ids belong to
+     * @param ids  Ids of all words found - owned by the Solution from now on
+     */
+    Solution(Dictionary dict, BitSet ids) {
+        this.dict = dict;
+        this.graph = dict.getWordGraph();
+        this.ids = ids;
+    }
+
+    public Dictionary getDictionary() {
+        return dict;
+    }
+
+    /**
+     * @return Number of words found
+     */
+    public int getCount() {
+        return ids.cardinality();
+    }
+
+    /**
+     * @return Sorted word ids, a fresh copy each call
+     */
+    public int[] getIds() {
+        return ids.stream().toArray();
+    }
+
+    public boolean contains(int id) {
+        return id >= 0 && ids.get(id);
+    }
+
+    /**
+     * @param word
+     * @return True if the word was found, answered from the dictionary without spelling out any words
+     */
+    public boolean contains(CharSequence word) {
+        word = dict.toSymbols(word, false);
+        int node = graph.root();
+        int id = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (c < Trie.FIRST_CHAR || c > Trie.LAST_CHAR) {
+                return false;
+            }
+            int next = graph.child(node, c);
+            if (next == WordGraph.NONE) {
+                return false;
+            }
+            id += graph.rank(node, c);
+            node = next;
+        }
+        return graph.isEnd(node) && ids.get(id);
+    }
+
+    /**
+     * @return Unmodifiable, alphabetically sorted list of words
+     */
+    public List<String> getWords() {
+        List<String> w = words;
+        if (w == null) {
+            List<String> list = new ArrayList<>(ids.cardinality());
+            for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+                list.add(dict.getWord(id));
+            }
+            w = Collections.unmodifiableList(list);
+            words = w;
+        }
+        return w;
+    }
+
+    /**
+     * True if some word found starts with the given prefix, or is the prefix.  Answered from the main
+     * dictionary: the words below the prefix's node have the ids from the sum of ranks along its path up to
+     * that plus WordGraph.countWords(), so the question is whether any of those ids were found.
+     *
+     * @param prefix
+     * @return
+     */
+    public boolean hasPrefix(CharSequence prefix) {
+        return hasPrefix(prefix, prefix.length());
+    }
+
+    /**
+     * @param prefix
+     * @param len Number of characters of prefix to use
+     * @return
+     */
+    public boolean hasPrefix(CharSequence prefix, int len) {
+        if (dict.isQuTile()) {
+            prefix = dict.toSymbols(prefix.subSequence(0, len), true);
+            len = prefix.length();
+        }
+        int node = graph.root();
+        int id = 0;
+        for (int i = 0; i < len; i++) {
+            char c = prefix.charAt(i);
+            if (c < Trie.FIRST_CHAR || c > Trie.LAST_CHAR) {
+                return false;
+            }
+            int next = graph.child(node, c);
+            if (next == WordGraph.NONE) {
+                return false;
+            }
+            id += graph.rank(node, c);
+            node = next;
+        }
+        int found = ids.nextSetBit(id);
+        return found >= 0 && found < id + graph.countWords(node);
+    }
+
+    /**
+     * @return Total possible score of the board, from word lengths alone
+     */
+    public int getScore() {
+        int score = 0;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            score += Boggle.scores[Math.min(dict.getWordLength(id), Boggle.scores.length - 1)];
+        }
+        return score;
+    }
+
+    /**
+     * @return Longest word, the first alphabetically if there's a tie, or null if nothing was found.  The only
+     * word spelled out.
+     */
+    public String getMaxWord() {
+        int max = -1;
+        int maxLen = 0;
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            int len = dict.getWordLength(id);
+            if (len > maxLen) {
+                max = id;
+                maxLen = len;
+            }
+        }
+        return (max < 0) ? null : dict.getWord(max);
+    }
+}
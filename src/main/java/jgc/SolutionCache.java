@@ -0,0 +1,181 @@
+package jgc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU cache of solved boards, keyed by board, dictionary and minimum word length.
+ *
+ * The 8 rotations and reflections of a board have the same words, so boards are folded into one canonical
+ * key: the smallest of the 8 row major strings.  Dictionaries are compared by identity, as a Dictionary never
+ * changes once built.  Entries hold their dictionary, so register the cache with the DictionaryRegistry the
+ * dictionaries come from, and it lets go of them when the registry does.
+ *
+ * Thread safe.  Two threads missing the same board at once will both solve it, and the last one in wins.
+ */
+public class SolutionCache implements DictionaryRegistry.EvictionListener {
+
+    private final int capacity;
+    private final Map<Key, Solution> map;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param capacity Maximum number of boards kept
+     */
+    public SolutionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.capacity = capacity;
+        this.map = new LinkedHashMap<Key, Solution>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Solution> eldest) {
+                if (size() > SolutionCache.this.capacity) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached solution for the board or any of its symmetries, else solves it outside the lock and
+     * caches the result.
+     *
+     * @param board   NxN board
+     * @param dict    Dictionary solved against
+     * @param wordLen Minimum word length
+     * @param solver  Called on a miss
+     * @return
+     */
+    public Solution get(char[][] board, Dictionary dict, int wordLen, Function<char[][], Solution> solver) {
+        Key key = new Key(canonical(board), dict, wordLen);
+        Solution solution;
+        synchronized (map) {
+            solution = map.get(key);
+        }
+        if (solution != null) {
+            hits.incrementAndGet();
+            return solution;
+        }
+        misses.incrementAndGet();
+        solution = solver.apply(board);
+        synchronized (map) {
+            map.put(key, solution);
+        }
+        return solution;
+    }
+
+    /**
+     * Drops every entry solved against the dictionary, or against its toQuTile() dictionary.  Not counted as
+     * evictions, which are only for room.
+     *
+     * @param dict
+     */
+    @Override
+    public void evicted(Dictionary dict) {
+        Dictionary quTile = dict.getBuiltQuTile();
+        synchronized (map) {
+            map.keySet().removeIf(k -> k.dict == dict || k.dict == quTile);
+        }
+    }
+
+    /**
+     * The smallest row major string of the 8 symmetries of the board: the identity, 3 rotations and 4
+     * reflections.  Each is a combination of transposing and flipping rows and/or columns.
+     *
+     * @param board NxN board
+     * @return
+     */
+    static String canonical(char[][] board) {
+        int n = board.length;
+        char[] best = null;
+        char[] buf = new char[n * n];
+        for (int t = 0; t < 8; t++) {
+            boolean transpose = (t & 1) != 0;
+            boolean flipRows = (t & 2) != 0;
+            boolean flipCols = (t & 4) != 0;
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    int r = transpose ? j : i;
+                    int c = transpose ? i : j;
+                    buf[k++] = board[flipRows ? n - 1 - r : r][flipCols ? n - 1 - c : c];
+                }
+            }
+            if (best == null || compare(buf, best) < 0) {
+                best = buf.clone();
+            }
+        }
+        return new String(best);
+    }
+
+    private static int compare(char[] a, char[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return a[i] - b[i];
+            }
+        }
+        return 0;
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "size: " + size() + "/" + capacity + ", hits: " + getHits() + ", misses: " + getMisses() +
+                ", evictions: " + getEvictions();
+    }
+
+    private static final class Key {
+        private final String board;
+        private final Dictionary dict;
+        private final int wordLen;
+
+        Key(String board, Dictionary dict, int wordLen) {
+            this.board = board;
+            this.dict = dict;
+            this.wordLen = wordLen;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return board.equals(k.board) && dict == k.dict && wordLen == k.wordLen;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(board, System.identityHashCode(dict), wordLen);
+        }
+    }
+}
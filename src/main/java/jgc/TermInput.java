@@ -0,0 +1,71 @@
+package jgc;
+
+import com.googlecode.lanterna.input.InputProvider;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Keystrokes from the terminal, read by a thread of its own which blocks on the terminal and queues each key
+ * as it comes.  Readers block on the queue, so an idle session uses no CPU, a key is seen as soon as it's
+ * typed, and a reader can still be interrupted, such as by the game timer.
+ *
+ * When the terminal is closed or fails, an EOF key is queued and the thread ends.
+ */
+class TermInput {
+
+    private static final Logger log = LogManager.getLogger(TermInput.class);
+
+    private final BlockingQueue<KeyStroke> keys = new LinkedBlockingQueue<>();
+
+    /**
+     * @param input Usually the Terminal
+     */
+    TermInput(InputProvider input) {
+        Thread t = new Thread(() -> read(input), "term-input");
+        t.setDaemon(true);      // may be blocked in the terminal forever
+        t.start();
+    }
+
+    /**
+     * Waits for the next key.
+     *
+     * @return
+     * @throws InterruptedException
+     */
+    KeyStroke take() throws InterruptedException {
+        return keys.take();
+    }
+
+    /**
+     * @return The next key, or null if none has been typed
+     */
+    KeyStroke poll() {
+        return keys.poll();
+    }
+
+    private void read(InputProvider input) {
+        try {
+            while (true) {
+                KeyStroke key = input.readInput();
+                if (key == null) {
+                    continue;
+                }
+                keys.put(key);
+                if (key.getKeyType() == KeyType.EOF) {
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("terminal input closed: " + e);
+            keys.add(new KeyStroke(KeyType.EOF));
+        } catch (InterruptedException e) {
+            keys.add(new KeyStroke(KeyType.EOF));
+        }
+    }
+}
@@ -3,7 +3,6 @@ package jgc;
 import com.googlecode.lanterna.SGR;
 import com.googlecode.lanterna.TerminalSize;
 import com.googlecode.lanterna.TextColor;
-import com.googlecode.lanterna.graphics.TextGraphics;
 import com.googlecode.lanterna.input.KeyStroke;
 import com.googlecode.lanterna.terminal.DefaultTerminalFactory;
 import com.googlecode.lanterna.terminal.Terminal;
@@ -36,6 +35,11 @@ import java.util.concurrent.TimeUnit;
  * clock each second will necessitate the cursor being repositioned.  Or, entering a valid word should
  * move the cursor to the next slot in the displayed solution list, which may be in a new column.
  *
+ * Nothing is written to the terminal directly.  Everything is drawn into a ScreenBuffer, and render() sends
+ * only the cells which changed, once per keystroke and once per clock tick.  Only the thread reading keys draws,
+ * so it never sends half a frame.  The clock's thread leaves the time for it to draw, and only renders itself
+ * while that thread is waiting for a key, under the screen's lock.
+ *
  * cursor
  */
 public class TermServices {
@@ -53,7 +57,8 @@ public class TermServices {
     static final int STATUS_Y = 0;
 
     Terminal terminal;
-    TextGraphics tGraphics;
+    TermInput input;    // keystrokes, read on their own thread
+    ScreenBuffer screen;    // everything is drawn here, then sent by render()
     int tWidth;         // screen width
     int tHeight;        // screen height
     int boardHeight;    // number of rows in a displayed board
@@ -62,6 +67,9 @@ public class TermServices {
 
     int cursorColumn;   // cursor X coord - need to reset after displaying elsewhere
     int cursorRow;      // cursor Y coord
+    boolean quTile;     // show 'q' cells as "Qu"
+    private String time;        // set by the clock, drawn at the next render(), guarded by screen
+    private boolean waiting;    // readWord() is waiting for a key, so the clock may render, guarded by screen
 
     // types of read responses from readWord()
     enum ReadType {
@@ -133,12 +141,13 @@ public class TermServices {
             if (terminal instanceof UnixTerminal) {
                 stty("-ixon");  // enable ^s/^q scroll lock
             }
-            tGraphics = terminal.newTextGraphics();
+            input = new TermInput(terminal);
             TerminalSize size = terminal.getTerminalSize();
             log.debug("terminal size: " + size);
             tWidth = size.getColumns();
             tHeight = size.getRows();
-            terminal.clearScreen();
+            screen = new ScreenBuffer(tWidth, tHeight);
+            screen.clear(terminal);
             helpText = ArrayUtils.addAll(helpText, commandHelpMsg.split("\\r?\\n"));
             setCursorPos(0, WORD_Y);        // start position
             terminal.setCursorVisible(true);   // always visible
@@ -161,7 +170,7 @@ public class TermServices {
     }
 
     /**
-     * display the given board in the middle of the terminal
+     * display the given board in the middle of the terminal.  Only drawn on the screen model, see render()
      * @param board
      */
     void displayBoard(char[][] board, Boggle.Reach[][] matchBoard) {
@@ -170,31 +179,27 @@ public class TermServices {
         boardWidth = template.get(0).length();
         boardRight = BOARD_X + boardWidth;
         int N = board.length;
-        try {
-            int row = BOARD_Y;
-            for (String str : template) {
-                tGraphics.putString(BOARD_X, row++, str + "    ");
-            }
-            for (int i = 0; i < N; i++) {
-                for (int j = 0; j < N; j++) {
-                    int x = BOARD_X + 2 + j * 4;
-                    int y = BOARD_Y + 1 + i * 2;
-                    if (matchBoard != null) {
-                        if (matchBoard[i][j] == Boggle.Reach.REACHED) {
-                            tGraphics.enableModifiers(SGR.REVERSE);
-                        } else if (matchBoard[i][j] == Boggle.Reach.MORE) {
-                            tGraphics.enableModifiers(SGR.REVERSE);
-                            tGraphics.enableModifiers(SGR.BLINK);
-                        }
-                        tGraphics.putString(x, y, "" + Character.toUpperCase(board[i][j]));
-                        tGraphics.disableModifiers(SGR.REVERSE);
-                        tGraphics.disableModifiers(SGR.BLINK);
-                    }
+        int row = BOARD_Y;
+        for (String str : template) {
+            screen.putString(BOARD_X, row++, str + "    ");
+        }
+        if (matchBoard == null) {
+            return;
+        }
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                int x = BOARD_X + 2 + j * 4;
+                int y = BOARD_Y + 1 + i * 2;
+                if (matchBoard[i][j] == Boggle.Reach.REACHED) {
+                    screen.enableModifiers(SGR.REVERSE);
+                } else if (matchBoard[i][j] == Boggle.Reach.MORE) {
+                    screen.enableModifiers(SGR.REVERSE);
+                    screen.enableModifiers(SGR.BLINK);
                 }
+                screen.putString(x, y, "" + Character.toUpperCase(board[i][j]));
+                screen.disableModifiers(SGR.REVERSE);
+                screen.disableModifiers(SGR.BLINK);
             }
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 
@@ -213,7 +218,7 @@ public class TermServices {
             for (char c : row) {
                 buf.append("| ");
                 buf.append(Character.toUpperCase(c));
-                buf.append(" ");
+                buf.append((quTile && c == 'q') ? "u" : " ");
             }
             j++;
             buf.append("|");
@@ -227,15 +232,9 @@ public class TermServices {
         boardHeight = board.size();
         boardWidth = board.get(0).length();
         boardRight = BOARD_X + boardWidth;
-        try {
-            int row = BOARD_Y;
-            for (String str : board) {
-                tGraphics.putString(BOARD_X, row++, str + "    ");
-            }
-
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+        int row = BOARD_Y;
+        for (String str : board) {
+            screen.putString(BOARD_X, row++, str + "    ");
         }
     }
 
@@ -244,52 +243,41 @@ public class TermServices {
      */
     void clearBoard() {
         String format = spaces(boardWidth);
-        try {
-            for (int i = 0; i < boardHeight; i++) {
-                tGraphics.putString(BOARD_X, BOARD_Y+i, format);
-            }
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+        for (int i = 0; i < boardHeight; i++) {
+            screen.putString(BOARD_X, BOARD_Y+i, format);
         }
     }
 
     /**
      * Update displayed status
-     * @param wordCount
-     * @param maxScore
+     * @param wordCount Number of words on the board, or < 0 if it's still being solved
+     * @param maxScore  Total possible score, or < 0 if it's still being solved
      * @param curCount
      * @param curScore
      * @param maxWord
      * @param maxWordScore
      */
     void displayStatus(int wordCount, int maxScore, int curCount, int curScore, String maxWord, int maxWordScore) {
-        tGraphics.putString(STATUS_X, STATUS_Y, "score: "  + curScore + "    ");
-        tGraphics.putString(STATUS_X, STATUS_Y + 1, "count: "  + curCount + "    ");
-        tGraphics.putString(STATUS_X, STATUS_Y + 3, "total score: "  + maxScore + "    ");
-        tGraphics.putString(STATUS_X, STATUS_Y + 4, "word count: "  + wordCount + "    ");
+        screen.putString(STATUS_X, STATUS_Y, "score: "  + curScore + "    ");
+        screen.putString(STATUS_X, STATUS_Y + 1, "count: "  + curCount + "    ");
+        screen.putString(STATUS_X, STATUS_Y + 3, "total score: "  + ((maxScore < 0) ? "..." : maxScore) + "    ");
+        screen.putString(STATUS_X, STATUS_Y + 4, "word count: "  + ((wordCount < 0) ? "..." : wordCount) + "    ");
         if (maxWord != null) {
-            tGraphics.putString(boardRight + 4, STATUS_Y + 3, "max word: " + maxWord + "    ");
-            tGraphics.putString(boardRight + 4, STATUS_Y + 4, "max word score: " + maxWordScore + "    ");
-        }
-        try {
-            restoreCursorPos();
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+            screen.putString(boardRight + 4, STATUS_Y + 3, "max word: " + maxWord + "    ");
+            screen.putString(boardRight + 4, STATUS_Y + 4, "max word score: " + maxWordScore + "    ");
         }
     }
 
+    /**
+     * Called by the clock's thread.  The time is drawn at the next render(), which is now if no keystroke is
+     * being handled.
+     */
     void displayTime(int min, int sec) {
-        String s = String.format("%02d:%02d    ", min, sec);
-        int timeX = BOARD_X + (boardWidth / 2) - 2;
-        int timeY = BOARD_Y-1;
-        tGraphics.putString(timeX, timeY, s);
-        try {
-            restoreCursorPos();
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+        synchronized (screen) {
+            time = String.format("%02d:%02d    ", min, sec);
+            if (waiting) {
+                render();
+            }
         }
     }
 
@@ -298,36 +286,25 @@ public class TermServices {
         for (int i = 0; i < helpText.length; i++) {
             if (++rows >= tHeight - 2) {
                 try {
-                    terminal.flush();
                     ReadValue p = prompt("Hit return to continue:");
                     if (p.getType() == ReadType.PREVIOUS) {
                         i = 0;
                     }
                     rows = 0;
                     clear();
-                } catch (IOException | InterruptedException e) {
+                } catch (InterruptedException e) {
                     e.printStackTrace();
                 }
             }
-            tGraphics.putString(0, rows, helpText[i]);
-        }
-        try {
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+            screen.putString(0, rows, helpText[i]);
         }
     }
 
     void alert(String msg) {
         clearBoard();
-        tGraphics.enableModifiers(SGR.REVERSE);
-        tGraphics.putString(BOARD_X, BOARD_Y + 2, msg);
-        try {
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        tGraphics.disableModifiers(SGR.REVERSE);
+        screen.enableModifiers(SGR.REVERSE);
+        screen.putString(BOARD_X, BOARD_Y + 2, msg);
+        screen.disableModifiers(SGR.REVERSE);
     }
 
     void message(String msg) {
@@ -340,27 +317,53 @@ public class TermServices {
 
     protected void message(String msg, boolean reverse, int yOffset) {
         if (reverse) {
-            tGraphics.enableModifiers(SGR.REVERSE);
-        }
-        tGraphics.putString(boardRight + 4,yOffset, msg + "     ");
-        try {
-            terminal.flush();
-        } catch (IOException e) {
-            e.printStackTrace();
+            screen.enableModifiers(SGR.REVERSE);
         }
+        screen.putString(boardRight + 4,yOffset, msg + "     ");
         if (reverse) {
-            tGraphics.disableModifiers(SGR.REVERSE);
+            screen.disableModifiers(SGR.REVERSE);
         }
     }
 
+    /**
+     * Where the cursor goes at the next render().
+     */
     void setCursorPos(int col, int row) throws IOException {
         cursorColumn = col;
         cursorRow = row;
-        terminal.setCursorPosition(col, row);
     }
 
-    void restoreCursorPos() throws IOException {
-        terminal.setCursorPosition(cursorColumn, cursorRow);
+    /**
+     * Sends what changed on the screen since last time, in one flush.  Called once per keystroke, just before
+     * waiting for the next one, and on each tick of the clock while waiting.
+     */
+    void render() {
+        synchronized (screen) {
+            if (time != null) {
+                screen.putString(BOARD_X + (boardWidth / 2) - 2, BOARD_Y - 1, time);
+                time = null;
+            }
+            try {
+                screen.render(terminal, cursorColumn, cursorRow);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // waits for a key, letting the clock render meanwhile
+    private KeyStroke takeKey() throws InterruptedException {
+        synchronized (screen) {
+            render();
+            waiting = true;
+        }
+        try {
+            return input.take();
+        } finally {
+            synchronized (screen) {
+                waiting = false;
+            }
+        }
     }
 
     /**
@@ -371,16 +374,14 @@ public class TermServices {
      */
     ReadValue prompt(String p) throws InterruptedException {
         ReadValue retval = null;
-        tGraphics.putString(0, tHeight-1, p + "  ");
+        screen.putString(0, tHeight-1, p + "  ");
         try {
             int oldCursorX = cursorColumn;
             int oldCursorY = cursorRow;
             setCursorPos(p.length() + 1, tHeight-1);
-            terminal.flush();
             retval = readWord(0);
-            tGraphics.putString(0, tHeight-1, spaces(p.length() + 1));
+            screen.putString(0, tHeight-1, spaces(p.length() + 1));
             setCursorPos(oldCursorX, oldCursorY);
-            terminal.flush();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -389,8 +390,7 @@ public class TermServices {
 
     void clear() {
         try {
-            terminal.clearScreen();
-            terminal.flush();
+            screen.clear(terminal);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -403,8 +403,7 @@ public class TermServices {
      *     Displays help on ?
      *     Support delete/backspace for word editing
      *     Highlights words, or partial words, which will not be correct
-     * blocks until newline, ESC/interrupt
-     * FIX THIS: IO doesn't respond well to all interrupts, so looks for done flag as well
+     * blocks until newline, ESC/interrupt - keys come from TermInput, so waiting for one can be interrupted
      *
      * @return
      * @throws InterruptedException
@@ -418,14 +417,7 @@ public class TermServices {
         StringBuilder buf = new StringBuilder();
         while (true) {
             try {
-                restoreCursorPos();
-                KeyStroke key = null;
-                while (key == null) {
-                    key = terminal.pollInput(); // non-blocking IO
-                    if (key == null) {
-                        Thread.sleep(10);
-                    }
-                }
+                KeyStroke key = takeKey();
                 if (key.isCtrlDown()) {
                     switch (key.getKeyType()) {
                         case Character:
@@ -514,8 +506,10 @@ public class TermServices {
     void stop() {
         // terminal.st
         try {
-            tGraphics.disableModifiers(SGR.REVERSE);
-            setCursorPos(0, tHeight);
+            screen.disableModifiers(SGR.REVERSE);
+            setCursorPos(0, tHeight - 1);
+            render();
+            terminal.setCursorPosition(0, tHeight);
             terminal.setBackgroundColor(TextColor.ANSI.DEFAULT);
             terminal.setForegroundColor(TextColor.ANSI.DEFAULT);
             terminal.flush();
@@ -564,7 +558,7 @@ public class TermServices {
             if (coords == null) {
                 return;
             }
-            tGraphics.putString(coords.getLeft(), coords.getRight(), spaces);
+            screen.putString(coords.getLeft(), coords.getRight(), spaces);
         }
     }
 
@@ -598,7 +592,7 @@ public class TermServices {
                 if (coords == null) {
                     // no room to display new word
                     if (prevCoords != null) {
-                        tGraphics.putString(prevCoords.getLeft(), prevCoords.getRight(), "....    ");
+                        screen.putString(prevCoords.getLeft(), prevCoords.getRight(), "....    ");
                     }
                     return Pair.of(count + startWordIx - 1, i - startWordIx);
                 }
@@ -606,10 +600,10 @@ public class TermServices {
                 prevCount = i - startWordIx;
                 // highlight guessed words when showing entire solution list
                 if (solution != null && guesses != null && guesses.contains(word)) {
-                    tGraphics.enableModifiers(SGR.REVERSE);
+                    screen.enableModifiers(SGR.REVERSE);
                 }
                 if (useReverse) {
-                    tGraphics.enableModifiers(SGR.REVERSE);
+                    screen.enableModifiers(SGR.REVERSE);
                 }
                 try {
                     if (displaySingle) {
@@ -624,17 +618,12 @@ public class TermServices {
                 } catch (IOException io) {
                     io.printStackTrace();
                 }
-                tGraphics.putString(coords.getLeft(), coords.getRight(), word);
+                screen.putString(coords.getLeft(), coords.getRight(), word);
                 count++;
-                tGraphics.disableModifiers(SGR.REVERSE);
+                screen.disableModifiers(SGR.REVERSE);
             }
         } finally {
-            try {
-                tGraphics.disableModifiers(SGR.REVERSE);
-                terminal.flush();
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+            screen.disableModifiers(SGR.REVERSE);
         }
         return Pair.of(-1,prevCount);
     }
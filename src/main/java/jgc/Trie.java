@@ -14,33 +14,177 @@ public class Trie {
 
     private TrieNode root = new TrieNode();
     private int count = 0;  // number of words (leaf nodes)
+    private int nodeCount = 1;
+    private TrieNode[] nodes;   // all nodes by index, null until numbered
+    private WordGraph graph;
 
     public void insert(String str) {
         insert(str.toCharArray());
     }
 
     private void insert(char[] a) {
+        insert(a, a.length);
+    }
+
+    /**
+     * Inserts the first len characters of a.  The buffer may be reused as soon as this returns.
+     */
+    void insert(char[] a, int len) {
         TrieNode[] map = root.map;
 
         TrieNode t = null;
-        for(int i = 0; i < a.length; i++) {
+        for(int i = 0; i < len; i++) {
             char c = a[i];
             t = map[c-FIRST_CHAR];
             if (t == null) {        // new word
                 t = new TrieNode();
                 map[c - FIRST_CHAR] = t;
+                nodeCount++;
             }
             map = t.map;
         }
-        t.setEnd(true);   // mark last node as a whole word
-        t.setWord(new String(a));
-        this.count++;
+        if (!t.isEnd()) {
+            t.setEnd(true);   // mark last node as a whole word
+            this.count++;
+        }
+        nodes = null;
+        graph = null;
+    }
+
+    /**
+     * Moves the words of another trie, built separately, into this one by hanging its top level nodes under
+     * this root.  The two must not share any first letters.  The other trie must not be used afterwards.
+     *
+     * @param other
+     */
+    public void graft(Trie other) {
+        TrieNode[] map = root.map;
+        TrieNode[] otherMap = other.root.map;
+        for (int c = 0; c < map.length; c++) {
+            if (otherMap[c] != null && map[c] != null) {
+                throw new IllegalArgumentException("tries share the first letter: " + (char)(c + FIRST_CHAR));
+            }
+        }
+        for (int c = 0; c < map.length; c++) {
+            if (otherMap[c] != null) {
+                map[c] = otherMap[c];
+            }
+        }
+        count += other.count;
+        nodeCount += other.nodeCount - 1;   // other's root is dropped
+        nodes = null;
+        graph = null;
+    }
+
+    /**
+     * Gives every word an id, its index in sorted order.  Each node's id is that of the first word at or below
+     * it, so an end node's id is its own word's, and the words below a node have ids from its id up to the id
+     * of its next sibling.  Also gives each node an index for asGraph().  Must be called again after any inserts.
+     */
+    public void number() {
+        nodes = new TrieNode[nodeCount];
+        number(root, 0, new int[1]);
+    }
+
+    private int number(TrieNode node, int id, int[] index) {
+        node.setId(id);
+        node.setIndex(index[0]);
+        nodes[index[0]++] = node;
+        if (node.isEnd()) {
+            id++;
+        }
+        for (TrieNode t : node.map) {
+            if (t != null) {
+                id = number(t, id, index);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * A WordGraph view of this trie, so the TRIE engine can be walked by the same solver as the others.  Graph
+     * nodes are TrieNode indexes, so each step costs one more array lookup than following TrieNodes directly.
+     * Numbers the trie if needed.
+     *
+     * @return
+     */
+    public synchronized WordGraph asGraph() {
+        if (nodes == null) {
+            number();
+        }
+        if (graph == null) {
+            graph = new WordGraph() {
+                @Override
+                public int root() {
+                    return root.getIndex();
+                }
+
+                @Override
+                public int child(int node, char c) {
+                    TrieNode t = nodes[node].map[c - FIRST_CHAR];
+                    return (t == null) ? NONE : t.getIndex();
+                }
+
+                @Override
+                public int rank(int node, char c) {
+                    TrieNode t = nodes[node];
+                    return t.map[c - FIRST_CHAR].getId() - t.getId();
+                }
+
+                @Override
+                public boolean isEnd(int node) {
+                    return nodes[node].isEnd();
+                }
+
+                @Override
+                public int getCount() {
+                    return count;
+                }
+
+                @Override
+                public int getNodeCount() {
+                    return nodeCount;
+                }
+
+                @Override
+                public long getMemoryBytes() {
+                    return Trie.this.getMemoryBytes();
+                }
+            };
+        }
+        return graph;
+    }
+
+    /**
+     * @param id A word id from number()
+     * @return
+     */
+    public String getWord(int id) {
+        return asGraph().getWord(id);
     }
 
     public int getCount() {
         return this.count;
     }
 
+    public int getNodeCount() {
+        return this.nodeCount;
+    }
+
+    /**
+     * Rough heap estimate, assuming compressed oops: a 24 byte TrieNode plus its 26 slot map and a slot in
+     * the node index.
+     * @return
+     */
+    public long getMemoryBytes() {
+        long mapBytes = 16 + 4 * (LAST_CHAR - FIRST_CHAR + 1);
+        return nodeCount * (24 + mapBytes + 4L);
+    }
+
+    TrieNode getRoot() {
+        return root;
+    }
+
     public TrieNode findNode(String str){
         return findNode(root, str.toCharArray(), (char) 0);
     }
@@ -8,8 +8,8 @@ import static jgc.Trie.LAST_CHAR;
 
 /**
  * These are now consumed at all levels of Boggle to aid in performance.  Efficient solution finding
- * can't be obtained w/o traversing tries manually and decorating the tree (get/setUsed) along the
- * way.
+ * can't be obtained w/o traversing tries manually.  Nodes are never changed while solving, so one
+ * trie may be shared by any number of solves.
  */
 public class TrieNode {
     public TrieNode[] map;  // assumes small range
@@ -18,13 +18,13 @@ public class TrieNode {
     @Getter
     private boolean end;    // is leaf node
 
-    @Setter // creates isUsed()
+    @Setter
     @Getter
-    private boolean used;    // has been used
+    private int id;         // sorted index of the first word at or below this node, see Trie.number()
 
     @Setter
     @Getter
-    private String word;    // optimization for constructing words from TrieNode
+    private int index;      // position in Trie.nodes, see Trie.asGraph()
 
     public TrieNode(){
         // Simple array[26]
@@ -0,0 +1,156 @@
+package jgc;
+
+/**
+ * A read only word graph whose nodes are plain ints rather than objects.  Lets the solver walk a dictionary
+ * without caring whether it is stored as flat arrays, a minimized graph or something else entirely.
+ *
+ * Node values are only meaningful to the graph which produced them.  NONE is returned for a missing child.
+ *
+ * Every word has an id, its index in sorted order.  As nodes may be shared by many words, a word's id is the sum
+ * of rank() along its path from the root.
+ */
+public interface WordGraph {
+
+    int NONE = -1;
+
+    /**
+     * @return The root node, which represents the empty string
+     */
+    int root();
+
+    /**
+     * Returns the node reached from the given node by following a single character, or NONE.  The character
+     * must be in the range Trie.FIRST_CHAR to Trie.LAST_CHAR - no error checking is done.
+     *
+     * @param node current node
+     * @param c character to traverse
+     * @return
+     */
+    int child(int node, char c);
+
+    /**
+     * Number of words at or below the given node which sort before those below child c.  Only valid when child
+     * c exists.
+     *
+     * @param node current node
+     * @param c character to traverse
+     * @return
+     */
+    int rank(int node, char c);
+
+    /**
+     * @param node
+     * @return True if the path to this node spells a whole word
+     */
+    boolean isEnd(int node);
+
+    /**
+     * @return Number of words
+     */
+    int getCount();
+
+    /**
+     * @return Number of nodes
+     */
+    int getNodeCount();
+
+    /**
+     * @return Approximate number of heap bytes used by the graph
+     */
+    long getMemoryBytes();
+
+    /**
+     * Number of words at or below a node, found by following the last child down to a leaf: each step adds the
+     * rank of the last child, which counts everything before it.
+     *
+     * @param node
+     * @return
+     */
+    default int countWords(int node) {
+        int count = 0;
+        while (true) {
+            char last = 0;
+            int next = NONE;
+            for (char c = Trie.LAST_CHAR; c >= Trie.FIRST_CHAR && next == NONE; c--) {
+                next = child(node, c);
+                last = c;
+            }
+            if (next == NONE) {
+                return count + (isEnd(node) ? 1 : 0);
+            }
+            count += rank(node, last);
+            node = next;
+        }
+    }
+
+    /**
+     * Follows a whole string from the root.
+     *
+     * @param word
+     * @return The node reached, or NONE
+     */
+    default int findNode(String word) {
+        int node = root();
+        for (int i = 0; i < word.length() && node != NONE; i++) {
+            node = child(node, word.charAt(i));
+        }
+        return node;
+    }
+
+    /**
+     * Spells out a word from its id, by following the child with the highest rank not above what's left of the
+     * id at each node.
+     *
+     * @param id A valid word id, from 0 to getCount() - 1
+     * @return
+     */
+    default String getWord(int id) {
+        char[] word = new char[100];
+        int k = 0;
+        int node = root();
+        while (!isEnd(node) || id != 0) {
+            int next = NONE;
+            int nextRank = 0;
+            for (char c = Trie.FIRST_CHAR; c <= Trie.LAST_CHAR; c++) {
+                int child = child(node, c);
+                if (child != NONE) {
+                    int r = rank(node, c);
+                    if (r > id) {
+                        break;
+                    }
+                    next = child;
+                    nextRank = r;
+                    word[k] = c;
+                }
+            }
+            id -= nextRank;
+            node = next;
+            k++;
+        }
+        return new String(word, 0, k);
+    }
+
+    /**
+     * Expensive way to get all words.  Produces an alphabetically sorted list.
+     * @return
+     */
+    default String[] extractWords() {
+        String[] words = new String[getCount()];
+        int[] k = {0};
+        extractWords(words, k, root(), new char[100], 0);
+        return words;
+    }
+
+    default void extractWords(String[] words, int[] count, int node, char[] word, int k) {
+        if (isEnd(node)) {
+            words[count[0]++] = new String(word, 0, k);
+        }
+        for (char c = Trie.FIRST_CHAR; c <= Trie.LAST_CHAR; c++) {
+            int next = child(node, c);
+            if (next != NONE) {
+                word[k] = c;
+                extractWords(words, count, next, word, k + 1);
+            }
+        }
+    }
+}
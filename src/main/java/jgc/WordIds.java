@@ -0,0 +1,39 @@
+package jgc;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Growable list of word ids, owned by a single solver thread so no locking is needed.  A word may be added
+ * more than once - duplicates disappear when the lists are merged into a BitSet.
+ */
+public class WordIds {
+
+    private int[] ids = new int[64];
+    private int size = 0;
+
+    public void add(int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    public void addAll(WordIds other) {
+        if (size + other.size > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(size * 2, size + other.size));
+        }
+        System.arraycopy(other.ids, 0, ids, size, other.size);
+        size += other.size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void addTo(BitSet set) {
+        for (int i = 0; i < size; i++) {
+            set.set(ids[i]);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardGeneratorTest {
+
+    private static final List<String> WORDS = Arrays.asList("tea", "eat", "ate", "tan", "net", "ten", "set", "sea",
+            "tee", "see", "ease", "seat", "east", "eats", "teas", "neat", "ante", "tense", "teens", "nest", "nets",
+            "tens", "sent", "rest", "tree", "trees", "steer", "reset", "quit", "queen", "stone", "notes", "onset");
+
+    @Test
+    void generate() throws Exception {
+        Boggle b = new Boggle();
+        char[][] dice = b.buildDice(4);
+        String faces = String.join("", b.fourDice);
+        Dictionary dict = Dictionary.getDictionary(WORDS, Dictionary.DictEngine.FLAT);
+        BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (BoardGenerator.Objective objective : BoardGenerator.Objective.values()) {
+                BoardGenerator generator = new BoardGenerator(solver, dice, objective, false);
+                List<BoardGenerator.Result> results = generator.generate(pool, 2, 5000, 5, 42);
+                assertFalse(results.isEmpty());
+                assertTrue(results.size() <= 5);
+                int last = Integer.MAX_VALUE;
+                for (BoardGenerator.Result r : results) {
+                    int value = (objective == BoardGenerator.Objective.SCORE) ? r.getScore() : r.getCount();
+                    assertTrue(value <= last);
+                    last = value;
+                    assertEquals(16, r.getBoard().length());
+                    for (char c : r.getBoard().toCharArray()) {
+                        assertTrue(faces.indexOf(c) >= 0);
+                    }
+                    Solution s = solver.solve(BoardGenerator.toBoard(r.getBoard()));
+                    assertEquals(s.getScore(), r.getScore());
+                    assertEquals(s.getCount(), r.getCount());
+                }
+                assertTrue(results.get(0).getCount() >= 5, "annealing should find a good board");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
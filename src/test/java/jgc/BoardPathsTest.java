@@ -0,0 +1,77 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardPathsTest {
+
+    private char[][] board(String s) {
+        int n = (int) Math.sqrt(s.length());
+        char[][] b = new char[n][];
+        for (int i = 0; i < n; i++) {
+            b[i] = s.substring(i * n, i * n + n).toCharArray();
+        }
+        return b;
+    }
+
+    @Test
+    void follow() {
+        BoardPaths paths = new BoardPaths(board("abaxxxxxx"));
+        paths.follow("aba");
+        assertEquals(2, paths.size());
+        assertEquals(0b111, paths.reached());
+        assertEquals(0b101, paths.ends());
+
+        // the b can't be used twice
+        paths.follow("abab");
+        assertEquals(0, paths.size());
+        assertEquals(0, paths.reached());
+
+        // backspace
+        paths.follow("ab");
+        assertEquals(2, paths.size());
+        assertEquals(0b010, paths.ends());
+
+        paths.follow("x");
+        assertEquals(6, paths.size());
+        paths.follow("");
+        assertEquals(0, paths.size());
+        assertEquals(0, paths.reached());
+
+        // 24 orders, but only 12 ends and cells
+        paths = new BoardPaths(board("eeee"));
+        paths.follow("eee");
+        assertEquals(12, paths.size());
+        assertEquals(0b1111, paths.ends());
+    }
+
+    @Test
+    void incremental() {
+        Random rand = new Random(1);
+        for (int t = 0; t < 200; t++) {
+            StringBuilder s = new StringBuilder();
+            for (int i = 0; i < 16; i++) {
+                s.append((char) ('a' + rand.nextInt(3)));
+            }
+            char[][] b = board(s.toString());
+            BoardPaths paths = new BoardPaths(b);
+            StringBuilder word = new StringBuilder();
+            for (int k = 0; k < 20; k++) {
+                if (word.length() > 0 && rand.nextInt(3) == 0) {
+                    word.setLength(word.length() - 1);
+                } else {
+                    word.append((char) ('a' + rand.nextInt(3)));
+                }
+                paths.follow(word);
+                BoardPaths fresh = new BoardPaths(b);
+                fresh.follow(word);
+                assertEquals(fresh.size(), paths.size(), word::toString);
+                assertEquals(fresh.reached(), paths.reached(), word::toString);
+                assertEquals(fresh.ends(), paths.ends(), word::toString);
+            }
+        }
+    }
+}
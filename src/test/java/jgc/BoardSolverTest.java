@@ -0,0 +1,273 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSolverTest {
+
+    private static final List<String> WORDS =
+            Arrays.asList("ten", "tens", "net", "nets", "bet", "best", "beset", "tin", "quit", "zzz");
+
+    private static final List<String> SCORER_WORDS = Arrays.asList("tea", "eat", "ate", "tan", "net", "ten", "set",
+            "sea", "tee", "see", "ease", "seat", "east", "eats", "teas", "neat", "ante", "tense", "teens", "nest", "nets",
+            "tens", "sent", "rest", "tree", "trees", "steer", "reset", "quit", "queen", "stone", "notes", "onset");
+
+    private char[][] board(String s) {
+        int n = (int) Math.sqrt(s.length());
+        char[][] b = new char[n][];
+        for (int i = 0; i < n; i++) {
+            b[i] = s.substring(i * n, i * n + n).toCharArray();
+        }
+        return b;
+    }
+
+    @Test
+    void solve() {
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            Dictionary dict = Dictionary.getDictionary(WORDS, engine);
+            for (Boggle.Solver mode : Boggle.Solver.values()) {
+                Solution s = new BoardSolver(dict, 3, mode).solve(board("tslneiaentrtbeso"));
+                assertEquals(Arrays.asList("best", "bet", "net", "nets", "ten", "tin"), s.getWords());
+                assertEquals(6, s.getCount());
+                assertEquals(6, s.getScore());
+                assertEquals(4, s.getMaxWord().length());
+                assertThrows(UnsupportedOperationException.class, () -> s.getWords().add("zzz"));
+            }
+        }
+    }
+
+    @Test
+    void hasPrefix() {
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            Dictionary dict = Dictionary.getDictionary(WORDS, engine);
+            Solution s = new BoardSolver(dict, 3, Boggle.Solver.BOARD).solve(board("tslneiaentrtbeso"));
+            for (String p : new String[] {"b", "be", "bes", "best", "n", "ne", "nets", "t", "ti", "tin"}) {
+                assertTrue(s.hasPrefix(p), p);
+            }
+            // in the dictionary, but not on the board
+            for (String p : new String[] {"bese", "beset", "q", "quit", "z", "zzz", "x", "bests", "tins", "A"}) {
+                assertFalse(s.hasPrefix(p), p);
+            }
+            assertTrue(s.hasPrefix("tinx", 3));
+        }
+    }
+
+    @Test
+    void contains() {
+        Random rand = new Random(11);
+        String letters = "aeinstbqu";
+        List<String> words = new ArrayList<>(WORDS);
+        words.addAll(Arrays.asList("quin", "quints", "qin", "sequin", "queen", "squat", "tint", "stint"));
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            Dictionary dict = Dictionary.getDictionary(words, engine);
+            BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD);
+            for (int i = 0; i < 100; i++) {
+                StringBuilder sb = new StringBuilder();
+                for (int c = 0; c < 16; c++) {
+                    sb.append(letters.charAt(rand.nextInt(letters.length())));
+                }
+                char[][] b = board(sb.toString());
+                List<String> found = solver.solve(b).getWords();
+                for (String w : words) {
+                    assertEquals(found.contains(w), solver.contains(b, w), sb + " " + w);
+                }
+            }
+        }
+        BoardSolver solver = new BoardSolver(Dictionary.getDictionary(words), 4, Boggle.Solver.BOARD);
+        assertTrue(solver.contains(board("tslneiaentrtbeso"), "best"));
+        assertFalse(solver.contains(board("tslneiaentrtbeso"), "bet"));    // too short
+        assertFalse(solver.contains(board("tslneiaentrtbeso"), "Best"));
+        assertTrue(solver.contains(board("qitxxxxxx"), "quit"));
+    }
+
+    @Test
+    void quTile() {
+        List<String> words = Arrays.asList("qat", "quit", "quite", "quip");
+        char[][] b = board("qixatepux");
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            Dictionary plain = Dictionary.getDictionary(words, engine);
+            assertEquals(Arrays.asList("qat", "quit", "quite"),
+                    new BoardSolver(plain, 3, Boggle.Solver.BOARD).solve(b).getWords());
+
+            // qat can't be played with a Qu tile
+            Dictionary dict = plain.toQuTile();
+            assertTrue(dict.isQuTile());
+            assertSame(dict, plain.toQuTile());
+            assertArrayEquals(new String[] {"quip", "quit", "quite"}, dict.getWords());
+            for (Boggle.Solver mode : Boggle.Solver.values()) {
+                BoardSolver solver = new BoardSolver(dict, 3, mode);
+                Solution s = solver.solve(b);
+                assertEquals(Arrays.asList("quit", "quite"), s.getWords());
+                assertEquals(3, s.getScore());
+                assertEquals("quite", s.getMaxWord());
+                assertTrue(s.contains("quit"));
+                assertFalse(s.contains("qit"));
+                assertTrue(s.hasPrefix("q"));
+                assertTrue(s.hasPrefix("qu"));
+                assertFalse(s.hasPrefix("qa"));
+                assertTrue(solver.contains(b, "quite"));
+                assertFalse(solver.contains(b, "qat"));
+                assertTrue(solver.atLeast(b, 3, BoardGenerator.Objective.SCORE));
+                assertFalse(solver.atLeast(b, 4, BoardGenerator.Objective.SCORE));
+            }
+        }
+    }
+
+    @Test
+    void wordLen() {
+        Dictionary dict = Dictionary.getDictionary(WORDS);
+        Solution s = new BoardSolver(dict, 4, Boggle.Solver.BITBOARD).solve(board("tslneiaentrtbeso"));
+        assertEquals(Arrays.asList("best", "nets"), s.getWords());
+    }
+
+    @Test
+    void scorer() {
+        Dictionary dict = Dictionary.getDictionary(SCORER_WORDS, Dictionary.DictEngine.DAWG);
+        BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD);
+        BoardSolver.Scorer scorer = solver.new Scorer();
+        Random rand = new Random(3);
+        String letters = "aeinorstuq";
+        for (int i = 0; i < 200; i++) {
+            char[] cells = new char[16];
+            for (int c = 0; c < cells.length; c++) {
+                cells[c] = letters.charAt(rand.nextInt(letters.length()));
+            }
+            Solution s = solver.solve(BoardGenerator.toBoard(new String(cells)));
+            assertEquals(s.getScore(), scorer.score(cells));
+            assertEquals(s.getCount(), scorer.getCount());
+        }
+    }
+
+    @Test
+    void atLeast() {
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            Dictionary dict = Dictionary.getDictionary(SCORER_WORDS, engine);
+            BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD);
+            BoardSolver.Scorer scorer = solver.new Scorer();
+            Random rand = new Random(5);
+            String letters = "aeinorstuq";
+            for (int i = 0; i < 200; i++) {
+                char[] cells = new char[16];
+                for (int c = 0; c < cells.length; c++) {
+                    cells[c] = letters.charAt(rand.nextInt(letters.length()));
+                }
+                Solution s = solver.solve(BoardGenerator.toBoard(new String(cells)));
+                for (int t = Math.max(0, s.getScore() - 2); t <= s.getScore() + 2; t++) {
+                    assertEquals(s.getScore() >= t, scorer.atLeast(cells, t, BoardGenerator.Objective.SCORE));
+                }
+                for (int t = Math.max(0, s.getCount() - 2); t <= s.getCount() + 2; t++) {
+                    assertEquals(s.getCount() >= t, scorer.atLeast(cells, t, BoardGenerator.Objective.WORDS));
+                }
+                assertEquals(s.getScore(), scorer.score(cells));
+            }
+        }
+    }
+
+    @Test
+    void atLeastStops() {
+        Dictionary dict = Dictionary.getDictionary(WORDS, Dictionary.DictEngine.DAWG);
+        BoardSolver.Scorer scorer = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD).new Scorer();
+        char[] cells = "tslneiaentrtbeso".toCharArray();
+        assertEquals(6, scorer.score(cells));
+
+        // the walk stops at the threshold, short of the other words
+        assertTrue(scorer.atLeast(cells, 2, BoardGenerator.Objective.WORDS));
+        assertEquals(2, scorer.getCount());
+        assertTrue(scorer.atLeast(cells, 6, BoardGenerator.Objective.SCORE));
+        assertEquals(6, scorer.getScore());
+        assertFalse(scorer.atLeast(cells, 7, BoardGenerator.Objective.SCORE));
+        assertEquals(6, scorer.getCount());
+
+        // quit, from a 'q' and the 'u' placed after it, or from a Qu tile
+        cells = "qitaxxxxx".toCharArray();
+        assertTrue(scorer.atLeast(cells, 1, BoardGenerator.Objective.WORDS));
+        assertFalse(scorer.atLeast(cells, 2, BoardGenerator.Objective.WORDS));
+        scorer = new BoardSolver(dict.toQuTile(), 3, Boggle.Solver.BITBOARD).new Scorer();
+        assertTrue(scorer.atLeast(cells, 1, BoardGenerator.Objective.SCORE));
+        assertFalse(scorer.atLeast(cells, 2, BoardGenerator.Objective.SCORE));
+
+        // letters that spell no word at all
+        cells = "xxxxxxxxxxxxxxxx".toCharArray();
+        assertFalse(scorer.atLeast(cells, 1, BoardGenerator.Objective.WORDS));
+        assertTrue(scorer.atLeast(cells, 0, BoardGenerator.Objective.SCORE));
+    }
+
+    @Test
+    void forkJoin() throws Exception {
+        // words made by random walks over a 7x7 board, so there are plenty of deep subtrees to split
+        Random rand = new Random(7);
+        String letters = "tslneiaentrtbesoqiaxerstlanpoeimrsdtaegneilrstuoa";
+        char[][] b = board(letters);
+        List<String> words = new ArrayList<>();
+        for (int w = 0; w < 5000; w++) {
+            int cell = rand.nextInt(49);
+            long visited = 1L << cell;
+            StringBuilder sb = new StringBuilder().append(letters.charAt(cell));
+            int len = 3 + rand.nextInt(8);
+            while (sb.length() < len) {
+                int[] next = BoardSolver.NEIGHBORS[7][cell];
+                cell = next[rand.nextInt(next.length)];
+                if ((visited & (1L << cell)) != 0) {
+                    break;
+                }
+                visited |= 1L << cell;
+                sb.append(letters.charAt(cell));
+            }
+            words.add(sb.toString());
+        }
+        Dictionary dict = Dictionary.getDictionary(words, Dictionary.DictEngine.FLAT);
+        List<String> expected = new BoardSolver(dict, 3, Boggle.Solver.BOARD).solve(b).getWords();
+        assertTrue(expected.size() > 1000);
+
+        ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.FORKJOIN);
+            for (int i = 0; i < 10; i++) {
+                assertEquals(expected, solver.solve(b, pool).getWords());
+            }
+            assertEquals(expected, solver.solve(b).getWords());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void concurrent() throws Exception {
+        String[] boards = {"tslneiaentrtbeso", "qitaxxxxx", "betsxxxxxxxxxxxx", "xxxxxxxxx"};
+        List<List<String>> expected = Arrays.asList(
+                Arrays.asList("best", "bet", "net", "nets", "ten", "tin"),
+                Arrays.asList("quit"),
+                Arrays.asList("bet"),
+                Arrays.asList());
+
+        Dictionary dict = Dictionary.getDictionary(WORDS, Dictionary.DictEngine.FLAT);
+        BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        ExecutorService cellPool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Solution>> results = new ArrayList<>();
+            for (int round = 0; round < 50; round++) {
+                for (String b : boards) {
+                    results.add(pool.submit(() -> solver.solve(board(b))));
+                    results.add(pool.submit(() -> solver.solve(board(b), cellPool)));
+                }
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(expected.get((i / 2) % boards.length), results.get(i).get().getWords());
+            }
+        } finally {
+            pool.shutdown();
+            cellPool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package jgc;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoggleServerTest {
+
+    private Boggle boggle;
+    private BoggleServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        boggle = new Boggle();
+        new CommandLine(boggle).parseArgs("-h");    // hack to init boggle commandspec
+        boggle.dict = Dictionary.getDictionary(Arrays.asList("ten", "tens", "net", "nets", "bet", "best", "quit"));
+        boggle.solutionCache = new SolutionCache(16);
+        server = new BoggleServer(boggle, 0, 2);
+        server.start();
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    void solve() throws IOException {
+        BoggleServer.Result r = get(200, "/solve?board=TSLNEIAENTRTBESO");
+        assertEquals("tslneiaentrtbeso", r.board);
+        assertEquals(Arrays.asList("best", "bet", "net", "nets", "ten"), r.words);
+        assertEquals(5, r.count);
+        assertEquals(5, r.score);
+        assertNull(r.error);
+
+        // same board as JSON, transposed, answered from the cache
+        String json = "[['t','e','n','b'],['s','i','t','e'],['l','a','r','s'],['n','e','t','o']]";
+        r = get(200, "/solve?board=" + URLEncoder.encode(json, "UTF-8"));
+        assertEquals(5, r.count);
+        assertEquals(1, boggle.solutionCache.getHits());
+    }
+
+    @Test
+    void score() throws IOException {
+        BoggleServer.Result r = get(200, "/score?board=qitaxxxxx");
+        assertEquals(1, r.count);
+        assertEquals(1, r.score);
+        assertEquals("quit", r.max);
+        assertNull(r.words);
+    }
+
+    @Test
+    void validate() throws IOException {
+        BoggleServer.Result r = post("/validate", "board=tslneiaentrtbeso&words=best,+BET,tin,zzz,best");
+        assertEquals(Arrays.asList("best", "bet"), r.valid);
+        assertEquals(Arrays.asList("tin", "zzz"), r.invalid);
+        assertEquals(2, r.validScore);
+        assertNull(r.count);
+
+        r = get(200, "/validate?board=tslneiaentrtbeso&words=");
+        assertEquals(Collections.emptyList(), r.valid);
+        assertEquals(0, r.validScore);
+    }
+
+    @Test
+    void errors() throws IOException {
+        assertNotNull(get(400, "/solve").error);
+        assertNotNull(get(400, "/solve?board=abcd").error);
+        assertNotNull(get(400, "/solve?board=abc1efghi").error);
+        assertNotNull(get(400, "/solve?board=%5B%5B").error);
+        assertNotNull(get(400, "/validate?board=abcdefghi").error);
+        assertNotNull(get(400, "/solve?board=abcdefghi&dict=XXXL").error);
+        assertNotNull(get(404, "/solver?board=abcdefghi").error);
+    }
+
+    private BoggleServer.Result get(int status, String path) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+                .openConnection();
+        return read(status, c);
+    }
+
+    private BoggleServer.Result post(String path, String form) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path)
+                .openConnection();
+        c.setRequestMethod("POST");
+        c.setDoOutput(true);
+        c.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        try (OutputStream out = c.getOutputStream()) {
+            out.write(form.getBytes(StandardCharsets.UTF_8));
+        }
+        return read(200, c);
+    }
+
+    private BoggleServer.Result read(int status, HttpURLConnection c) throws IOException {
+        assertEquals(status, c.getResponseCode());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = (status == 200) ? c.getInputStream() : c.getErrorStream()) {
+            byte[] buf = new byte[4096];
+            for (int n; (n = in.read(buf)) > 0; ) {
+                bytes.write(buf, 0, n);
+            }
+        }
+        return new Gson().fromJson(new String(bytes.toByteArray(), StandardCharsets.UTF_8),
+                BoggleServer.Result.class);
+    }
+}
@@ -1,11 +1,18 @@
 package jgc;
 
+import com.google.gson.Gson;
 import org.apache.logging.log4j.Level;
 import org.junit.jupiter.api.Test;
 import picocli.CommandLine;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -18,11 +25,16 @@ class BoggleTest {
     }
 
     private Boggle getBoggle(Dictionary.DictSize ds) {
+        return getBoggle(ds, Dictionary.DictEngine.TRIE);
+    }
+
+    private Boggle getBoggle(Dictionary.DictSize ds, Dictionary.DictEngine engine) {
         Boggle b = new Boggle();
         CommandLine.ParseResult pr = new CommandLine(b).parseArgs("-h");    // hack to init boggle commandspec
         b.N = 4;
         b.logLevel = Level.DEBUG.name();
         b.dictSize = ds;
+        b.dictEngine = engine;
         b.init(false);
         return b;
     }
@@ -90,6 +102,7 @@ class BoggleTest {
      * slower.
      *
      * On my 4 year old laptop (2.8GHz) it runs at 5700->6800 solutions/sec with the standard dictionary.
+     * For repeatable numbers use SolveBenchmark, see the jmh profile in pom.xml.
      */
     // @Test
     void solvePerformance() {
@@ -172,6 +185,106 @@ class BoggleTest {
         }
     }
 
+    /**
+     * Solutions/sec and heap of each dictionary engine, side by side.  Same caveats as solvePerformance().
+     */
+    // @Test
+    void enginePerformance() {
+        final int SOLVEMAX = 2000;
+        for (Dictionary.DictSize ds : Dictionary.DictSize.values()) {
+            for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+                Boggle b = getBoggle(ds, engine);
+                b.boardString = "tleowsaitezpnsyi";
+                b.fillBoard();
+                for (int i = 0; i < SOLVEMAX / 4; i++) {
+                    b.solve();  // warm up
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < SOLVEMAX; i++) {
+                    b.solve();
+                }
+                long time = System.nanoTime() - start;
+                long rate = (long)(((double)SOLVEMAX * 1000000000.0) / (double)time);
+                System.out.println("dictionary: " + ds + ", engine: " + engine + ", \tsolution size: " +
+                        b.solutionSet.size() + ", \trate: " + rate + "/sec, \tapprox heap: " +
+                        (b.dict.getMemoryBytes() / 1024) + "KB");
+                b.close();
+            }
+        }
+    }
+
+    @Test
+    void solveEngines() {
+        Boggle b = getBoggle();
+        b.boardString = "tslneiaentrtbeso";
+        b.fillBoard();
+        List<String> words = Arrays.asList("ten", "tens", "net", "nets", "bet", "best", "beset", "tin", "quit", "zzz");
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            for (Boggle.Solver solver : Boggle.Solver.values()) {
+                b.dict = Dictionary.getDictionary(words, engine);
+                b.solver = solver;
+                b.solve();
+                assertEquals(Arrays.asList("best", "bet", "net", "nets", "ten", "tin"), b.solutionList);
+            }
+        }
+        b.close();
+    }
+
+    @Test
+    void solveQu() {
+        Boggle b = getBoggle();
+        b.boardString = "qitaxxxxx";
+        b.fillBoard();
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            for (Boggle.Solver solver : Boggle.Solver.values()) {
+                b.dict = Dictionary.getDictionary(Arrays.asList("quit", "qat", "quat", "qua", "tiq"), engine);
+                b.solver = solver;
+                b.solve();
+                assertEquals(Arrays.asList("qua", "quit", "tiq"), b.solutionList);
+            }
+        }
+        b.close();
+    }
+
+    @Test
+    void neighbors() {
+        assertArrayEquals(new int[] {3, 4, 1}, BoardSolver.NEIGHBORS[3][0]);
+        assertEquals(8, BoardSolver.NEIGHBORS[3][4].length);
+        assertEquals(3, BoardSolver.NEIGHBORS[7][48].length);
+    }
+
+    @Test
+    void batch() throws Exception {
+        Boggle b = getBoggle();
+        b.dict = Dictionary.getDictionary(Arrays.asList("ten", "tens", "net", "nets", "bet", "best", "quit"));
+        String input = "tslneiaentrtbeso\n\nQITAXXXXX\nabcd\nxxxxxxxxx\n";
+        for (Boggle.BatchOrder order : Boggle.BatchOrder.values()) {
+            b.batchOrder = order;
+            b.batchWords = true;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            int errors = b.batch(new BufferedReader(new StringReader(input)), new PrintStream(bytes, true, "UTF-8"));
+            assertEquals(1, errors);
+
+            Map<Integer, Boggle.BatchResult> byLine = new HashMap<>();
+            String[] lines = bytes.toString("UTF-8").split("\n");
+            assertEquals(4, lines.length);
+            for (String line : lines) {
+                Boggle.BatchResult r = new Gson().fromJson(line, Boggle.BatchResult.class);
+                byLine.put(r.line, r);
+            }
+            assertEquals(Arrays.asList("best", "bet", "net", "nets", "ten"), byLine.get(1).words);
+            assertEquals(5, byLine.get(1).score);
+            assertEquals(Arrays.asList("quit"), byLine.get(3).words);
+            assertNotNull(byLine.get(4).error);
+            assertEquals(0, byLine.get(5).count);
+            assertNull(byLine.get(5).max);
+            if (order == Boggle.BatchOrder.INPUT) {
+                assertTrue(lines[0].startsWith("{\"line\":1,"));
+            }
+        }
+        b.close();
+    }
+
     @Test
     void isValid() {
         Boggle b = getBoggle();
@@ -280,4 +393,28 @@ class BoggleTest {
         assertTrue(b.isBadPartial("sitar"));
         assertFalse(b.isBadPartial("yeast"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void solveInBackground() {
+        Boggle b = getBoggle();
+        b.dict = Dictionary.getDictionary(Arrays.asList("ten", "tens", "net", "nets", "bet", "best", "tin", "quit"));
+        b.boardString = "tslneiaentrtbeso";
+        b.fillBoard();
+        b.solveInBackground();
+        for (String w : new String[] {"best", "bet", "net", "nets", "ten", "tin"}) {
+            assertTrue(b.isGuess(w), w);
+        }
+        for (String w : new String[] {"tens", "quit", "be", "sent", "TEN"}) {
+            assertFalse(b.isGuess(w), w);
+        }
+        assertFalse(b.isBadPartial("ne"));
+        assertTrue(b.isBadPartial("nx"));
+        b.awaitSolution();
+        assertTrue(b.solutionReady());
+        assertEquals(new HashSet<>(Arrays.asList("best", "bet", "net", "nets", "ten", "tin")), b.solutionSet);
+        assertEquals(6, b.solutionScore);
+        assertTrue(b.isGuess("best"));
+        assertFalse(b.isGuess("tens"));
+        b.close();
+    }
+}
@@ -0,0 +1,62 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DawgTest {
+
+    private Trie buildSimple() {
+        Trie trie = new Trie();
+        for (String s : new String[] {"walk", "walks", "walking", "talk", "talks", "talking", "tall", "a"}) {
+            trie.insert(s);
+        }
+        return trie;
+    }
+
+    @Test
+    void compile() {
+        Trie trie = buildSimple();
+        FlatTrie dawg = Dawg.compile(trie);
+        assertEquals(8, dawg.getCount());
+        assertTrue(dawg.getNodeCount() < trie.getNodeCount());
+        assertArrayEquals(trie.extractWords(), dawg.extractWords());
+    }
+
+    @Test
+    void prefixWalk() {
+        FlatTrie dawg = Dawg.compile(buildSimple());
+        assertTrue(dawg.isEnd(dawg.findNode("walking")));
+        assertFalse(dawg.isEnd(dawg.findNode("walki")));
+        assertTrue(dawg.isEnd(dawg.findNode("tall")));
+        assertEquals(WordGraph.NONE, dawg.findNode("talls"));
+        assertEquals(WordGraph.NONE, dawg.findNode("wall"));
+        assertTrue(dawg.isEnd(dawg.findNode("a")));
+
+        // shared suffix: "alk" leads to the same node from both 'w' and 't'
+        assertEquals(dawg.findNode("walk"), dawg.findNode("talk"));
+    }
+
+    @Test
+    void getWord() {
+        FlatTrie dawg = Dawg.compile(buildSimple());
+        String[] words = dawg.extractWords();
+        for (int id = 0; id < words.length; id++) {
+            assertEquals(words[id], dawg.getWord(id));
+        }
+    }
+
+    @Test
+    void countWords() {
+        Trie trie = buildSimple();
+        FlatTrie dawg = Dawg.compile(trie);
+        FlatTrie flat = FlatTrie.compile(trie);
+        for (WordGraph g : new WordGraph[] {dawg, flat, trie.asGraph()}) {
+            assertEquals(8, g.countWords(g.root()));
+            assertEquals(3, g.countWords(g.findNode("walk")));
+            assertEquals(4, g.countWords(g.findNode("ta")));
+            assertEquals(1, g.countWords(g.findNode("a")));
+            assertEquals(1, g.countWords(g.findNode("walking")));
+        }
+    }
+}
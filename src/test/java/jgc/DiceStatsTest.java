@@ -0,0 +1,85 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiceStatsTest {
+
+    private static final List<String> WORDS = Arrays.asList("tea", "eat", "ate", "tan", "net", "ten", "set", "sea",
+            "ease", "seat", "east", "eats", "neat", "ante", "nest", "nets", "tens", "sent", "rest", "tree", "quit",
+            "queen", "stone", "notes", "onset", "reset", "steer");
+
+    @Test
+    void run() throws Exception {
+        Boggle b = new Boggle();
+        char[][] dice = b.buildDice(4);
+        Dictionary dict = Dictionary.getDictionary(WORDS, Dictionary.DictEngine.FLAT);
+        BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD);
+        long boards = 2 * DiceStats.CHUNK + 500;
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            List<Long> progress = new ArrayList<>();
+            DiceStats.Stats stats = new DiceStats(solver).run("fourDice", dice, boards, 7, pool,
+                    s -> progress.add(s.getBoards()));
+            assertEquals(boards, stats.getBoards());
+            assertEquals(4, stats.getSize());
+            assertEquals(boards, Arrays.stream(stats.getWords().getCounts()).sum());
+            assertEquals(boards, Arrays.stream(stats.getScores().getCounts()).sum());
+            assertEquals(boards, stats.getMaxLength().getCount());
+            assertFalse(progress.isEmpty());
+            assertTrue(progress.stream().allMatch(p -> p < boards));
+
+            // the same seeds give the same totals as solving each board
+            long words = 0;
+            long score = 0;
+            long[] letters = new long[26];
+            int max = 0;
+            for (int chunk = 0; chunk < 3; chunk++) {
+                Random rand = new Random(7 + chunk);
+                int count = (int) Math.min(DiceStats.CHUNK, boards - chunk * DiceStats.CHUNK);
+                char[] cells = new char[dice.length];
+                for (int i = 0; i < count; i++) {
+                    Boggle.roll(dice, rand, cells);
+                    Solution s = solver.solve(BoardGenerator.toBoard(new String(cells)));
+                    words += s.getCount();
+                    score += s.getScore();
+                    for (String w : s.getWords()) {
+                        max = Math.max(max, w.length());
+                        for (char c : w.toCharArray()) {
+                            letters[c - 'a'] += Boggle.scores[Math.min(w.length(), Boggle.scores.length - 1)];
+                        }
+                    }
+                }
+            }
+            assertEquals(words, stats.getWords().getSum());
+            assertEquals(score, stats.getScores().getSum());
+            assertEquals(max, stats.getMaxLength().getMax());
+            assertArrayEquals(letters, stats.getLetterPoints());
+            assertTrue(score > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void allDice() {
+        Boggle b = new Boggle();
+        for (int n = 3; n <= 7; n++) {
+            char[][] dice = b.buildDice(n);
+            assertEquals(n * n, dice.length);
+            char[] cells = new char[n * n];
+            Boggle.roll(dice, new Random(n), cells);
+            for (char c : cells) {
+                assertTrue(c >= 'a' && c <= 'z');
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryLoaderTest {
+
+    private static final List<String> LINES = Arrays.asList("apple", "Apple", "éclair", "eclair", "garçon", "can't",
+            "coöp", "reëlect", "El Niño", "niño", "smørrebrød", "ångström", "mHz", "", "zebra", "a", "über", "naïve",
+            "café", "éclair", "Ñandú", "ça", "bat", "bath");
+
+    @Test
+    void fold() {
+        byte[] word = new byte[Byte.MAX_VALUE];
+        for (String line : LINES) {
+            ByteBuffer buf = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            int len = DictionaryLoader.fold(buf, 0, buf.limit(), word);
+            String expected = Dictionary.checkWord(line);
+            if (expected == null || expected.isEmpty()) {
+                assertEquals(0, len, line);
+            }
+            else {
+                assertEquals(expected, new String(word, 0, len, StandardCharsets.US_ASCII), line);
+            }
+        }
+    }
+
+    @Test
+    void split() {
+        ByteBuffer buf = ByteBuffer.wrap(String.join("\n", LINES).getBytes(StandardCharsets.UTF_8));
+        int[] bounds = DictionaryLoader.split(buf, 4);
+        assertEquals(0, bounds[0]);
+        assertEquals(buf.limit(), bounds[bounds.length - 1]);
+        for (int i = 1; i < bounds.length - 1; i++) {
+            assertEquals('\n', buf.get(bounds[i] - 1));
+        }
+    }
+
+    @Test
+    void load(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("words");
+        Files.write(file, (String.join("\r\n", LINES) + "\n").getBytes(StandardCharsets.UTF_8));
+        Trie trie = DictionaryLoader.load(file);
+
+        Trie expected = new Trie();
+        for (String line : LINES) {
+            String w = Dictionary.checkWord(line);
+            if (w != null && !w.isEmpty()) {
+                expected.insert(w);
+            }
+        }
+        assertArrayEquals(expected.extractWords(), trie.extractWords());
+        assertEquals(expected.getNodeCount(), trie.getNodeCount());
+        assertTrue(trie.findNode("eclair").isEnd());
+        assertTrue(trie.findNode("nino").isEnd());
+    }
+
+    @Test
+    void loadChunks() {
+        // small enough chunks that the words are spread over several of them
+        StringBuilder sb = new StringBuilder();
+        Trie expected = new Trie();
+        for (int i = 0; i < 20000; i++) {
+            String w = Integer.toString(i, 26).chars()
+                    .mapToObj(c -> String.valueOf((char) (Character.digit(c, 26) + 'a')))
+                    .reduce("", String::concat);
+            sb.append(w).append('\n');
+            expected.insert(w);
+        }
+        ByteBuffer buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.US_ASCII));
+        int[] bounds = DictionaryLoader.split(buf, 8);
+        assertTrue(bounds.length > 2);
+        List<DictionaryLoader.Chunk> chunks = new ArrayList<>();
+        for (int i = 0; i < bounds.length - 1; i++) {
+            chunks.add(DictionaryLoader.clean(buf, bounds[i], bounds[i + 1]));
+        }
+        Trie trie = new Trie();
+        for (int letter = 0; letter < 26; letter++) {
+            trie.graft(DictionaryLoader.build(chunks, letter));
+        }
+        assertArrayEquals(expected.extractWords(), trie.extractWords());
+    }
+}
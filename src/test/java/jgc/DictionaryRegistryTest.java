@@ -0,0 +1,159 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryRegistryTest {
+
+    // a bigger dictionary for each size
+    private static Dictionary build(Dictionary.DictSize size, Dictionary.DictEngine engine) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < 100 * (size.ordinal() + 1); i++) {
+            words.add("word" + Integer.toString(i, 26).replaceAll("[0-9]", "x"));
+        }
+        return Dictionary.getDictionary(words, engine);
+    }
+
+    @Test
+    void get() {
+        AtomicInteger loads = new AtomicInteger();
+        DictionaryRegistry registry = new DictionaryRegistry(Long.MAX_VALUE, (size, engine) -> {
+            loads.incrementAndGet();
+            return build(size, engine);
+        });
+        Dictionary s = registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.FLAT);
+        Dictionary m = registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT);
+        assertSame(s, registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.FLAT));
+        assertSame(m, registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT));
+        assertNotSame(s, registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.DAWG));
+        assertEquals(3, loads.get());
+        assertEquals(3, registry.getLoads());
+        assertEquals(3, registry.size());
+        assertEquals(0, registry.getEvictions());
+    }
+
+    @Test
+    void concurrent() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        DictionaryRegistry registry = new DictionaryRegistry(Long.MAX_VALUE, (size, engine) -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return build(size, engine);
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Dictionary>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(pool.submit(() -> registry.get(Dictionary.DictSize.L, Dictionary.DictEngine.TRIE)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            Dictionary first = futures.get(0).get();
+            for (Future<Dictionary> f : futures) {
+                assertSame(first, f.get());
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void evict() {
+        long medium = build(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT).getMemoryBytes();
+        long large = build(Dictionary.DictSize.L, Dictionary.DictEngine.FLAT).getMemoryBytes();
+        DictionaryRegistry registry = new DictionaryRegistry(medium + large, DictionaryRegistryTest::build);
+        Dictionary s = registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.FLAT);
+        Dictionary m = registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT);
+        assertEquals(2, registry.size());
+
+        // S is the least recently used, so it goes to make room for L
+        registry.get(Dictionary.DictSize.L, Dictionary.DictEngine.FLAT);
+        assertEquals(1, registry.getEvictions());
+        assertEquals(medium + large, registry.getMemoryBytes());
+        assertSame(m, registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT));
+
+        // now L is, so S comes back in its place
+        assertNotSame(s, registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.FLAT));
+        assertEquals(2, registry.getEvictions());
+        assertEquals(4, registry.getLoads());
+        assertSame(m, registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT));
+        assertEquals(4, registry.getLoads());
+
+        // one dictionary over budget is still kept
+        registry.setBudget(1);
+        Dictionary xl = registry.get(Dictionary.DictSize.XL, Dictionary.DictEngine.FLAT);
+        assertEquals(1, registry.size());
+        assertSame(xl, registry.get(Dictionary.DictSize.XL, Dictionary.DictEngine.FLAT));
+    }
+
+    @Test
+    void pin() {
+        long medium = build(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT).getMemoryBytes();
+        DictionaryRegistry registry = new DictionaryRegistry(medium, DictionaryRegistryTest::build);
+        Dictionary m = registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT);
+        registry.pin(m);
+        registry.pin(m.toQuTile());
+
+        // a pinned dictionary is kept, however far over budget
+        registry.get(Dictionary.DictSize.XL, Dictionary.DictEngine.FLAT);
+        registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.FLAT);
+        assertEquals(2, registry.size());
+        assertEquals(1, registry.getEvictions());
+        assertSame(m, registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT));
+
+        // one pin each
+        registry.unpin(m.toQuTile());
+        registry.get(Dictionary.DictSize.L, Dictionary.DictEngine.FLAT);
+        assertSame(m, registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT));
+        registry.unpin(m);
+        registry.get(Dictionary.DictSize.L, Dictionary.DictEngine.FLAT);
+        registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.FLAT);
+        assertNotSame(m, registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT));
+
+        // not kept here
+        registry.pin(build(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT));
+        registry.unpin(m);
+    }
+
+    @Test
+    void quTileBytes() {
+        DictionaryRegistry registry = new DictionaryRegistry(Long.MAX_VALUE, DictionaryRegistryTest::build);
+        Dictionary m = registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.DAWG);
+        assertEquals(m.getMemoryBytes(), registry.getMemoryBytes());
+        Dictionary quTile = m.toQuTile();
+        assertEquals(m.getMemoryBytes() + quTile.getMemoryBytes(), registry.getMemoryBytes());
+    }
+
+    @Test
+    void failedLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        DictionaryRegistry registry = new DictionaryRegistry(Long.MAX_VALUE, (size, engine) -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("disk on fire");
+            }
+            return build(size, engine);
+        });
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.DAWG));
+        assertEquals("disk on fire", e.getCause().getMessage());
+        assertEquals(0, registry.size());
+        assertNotNull(registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.DAWG));
+        assertEquals(2, loads.get());
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -102,6 +103,46 @@ class DictionaryTest {
         System.out.println("num words: " + words3.length);
     }
 
+    /**
+     * Heap use of each engine, next to the original TRIE, for every dictionary size.  Loads them all from
+     * /usr/share/dict, so only run by hand.  enginesAgree() checks the engines against each other.
+     */
+    // @Test
+    void compareEngines() {
+        for (Dictionary.DictSize ds : Dictionary.DictSize.values()) {
+            Dictionary trie = Dictionary.getDictionary(ds, Dictionary.DictEngine.TRIE);
+            String[] words = trie.getWords();
+            long trieBytes = trie.getMemoryBytes();
+            for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+                Dictionary dict = Dictionary.getDictionary(ds, engine);
+                System.out.println("dictionary: " + ds + ", engine: " + engine + ", words: " + dict.getTrieCount() +
+                        ", approx heap: " + (dict.getMemoryBytes() / 1024) + "KB (" +
+                        (100 * dict.getMemoryBytes() / trieBytes) + "% of TRIE)");
+                assertArrayEquals(words, dict.getWords());
+            }
+        }
+    }
+
+    @Test
+    void enginesAgree() {
+        List<String> list = Arrays.asList("walk", "walks", "walking", "talk", "a", "tall", "quit", "zebra");
+        String[] words = Dictionary.getDictionary(list, Dictionary.DictEngine.TRIE).getWords();
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            assertArrayEquals(words, Dictionary.getDictionary(list, engine).getWords(), engine.toString());
+        }
+    }
+
+    @Test
+    void getWordLength() {
+        List<String> list = Arrays.asList("walk", "walks", "walking", "talk", "a", "tall");
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            Dictionary dict = Dictionary.getDictionary(list, engine);
+            for (int id = 0; id < dict.getTrieCount(); id++) {
+                assertEquals(dict.getWord(id).length(), dict.getWordLength(id));
+            }
+        }
+    }
+
     @Test
     void getSize() {
         assertTrue(dictXXL.getSize() == Dictionary.DictSize.XXL);
@@ -119,6 +160,19 @@ class DictionaryTest {
         assertEquals(true, node.isEnd());
     }
 
+    @Test
+    void findWordTreeFlat() {
+        Dictionary dict = Dictionary.getDictionary(Arrays.asList("lutfisk", "lute", "yggdrasil"), Dictionary.DictEngine.FLAT);
+        assertEquals(Dictionary.DictEngine.FLAT, dict.getEngine());
+        int node = dict.findWordNode("lut");
+        assertFalse(dict.getGraph().isEnd(node));
+        node = dict.findWordTree(node, 'e');
+        assertTrue(dict.getGraph().isEnd(node));
+        assertEquals(WordGraph.NONE, dict.findWordTree(node, 'x'));
+        assertEquals(3, dict.getTrieCount());
+        assertThrows(IllegalStateException.class, () -> dict.findWordTree("lute"));
+    }
+
     @Test
     void testFindWordTree() {
         TrieNode node = dictXXL.findWordTree("yg");
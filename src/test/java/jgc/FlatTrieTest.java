@@ -0,0 +1,69 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatTrieTest {
+
+    private FlatTrie buildSimple() {
+        Trie trie = new Trie();
+        trie.insert("abc");
+        trie.insert("ab");
+        trie.insert("bat");
+        trie.insert("cat");
+        trie.insert("cats");
+        return FlatTrie.compile(trie);
+    }
+
+    @Test
+    void testFindNode() {
+        FlatTrie flat = buildSimple();
+        assertFalse(flat.isEnd(flat.findNode("a")));
+        assertTrue(flat.isEnd(flat.findNode("ab")));
+        assertTrue(flat.isEnd(flat.findNode("abc")));
+        assertFalse(flat.isEnd(flat.findNode("ca")));
+        assertTrue(flat.isEnd(flat.findNode("cats")));
+        assertEquals(WordGraph.NONE, flat.findNode("x"));
+        assertEquals(WordGraph.NONE, flat.findNode("abcd"));
+        assertEquals(WordGraph.NONE, flat.findNode("bb"));
+    }
+
+    @Test
+    void child() {
+        FlatTrie flat = buildSimple();
+        int node = flat.child(flat.root(), 'c');
+        assertNotEquals(WordGraph.NONE, node);
+        assertEquals(WordGraph.NONE, flat.child(node, 'b'));
+        node = flat.child(node, 'a');
+        node = flat.child(node, 't');
+        assertTrue(flat.isEnd(node));
+        assertEquals(WordGraph.NONE, flat.child(node, 'z'));
+    }
+
+    @Test
+    void getCount() {
+        FlatTrie flat = buildSimple();
+        assertEquals(5, flat.getCount());
+        assertEquals(11, flat.getNodeCount());
+        assertTrue(flat.getMemoryBytes() > 0);
+    }
+
+    @Test
+    void extractWords() {
+        FlatTrie flat = buildSimple();
+        assertArrayEquals(new String[] {"ab", "abc", "bat", "cat", "cats"}, flat.extractWords());
+    }
+
+    @Test
+    void getWord() {
+        FlatTrie flat = buildSimple();
+        String[] words = flat.extractWords();
+        for (int id = 0; id < words.length; id++) {
+            assertEquals(words[id], flat.getWord(id));
+        }
+        assertEquals(3, flat.rank(flat.root(), 'c'));
+        int node = flat.findNode("ab");
+        assertEquals(1, flat.rank(node, 'c'));
+    }
+}
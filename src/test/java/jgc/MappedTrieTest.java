@@ -0,0 +1,69 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTrieTest {
+
+    static final List<String> WORDS = Arrays.asList("ab", "abc", "bat", "cat", "cats", "walking", "talking");
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void snapshot() throws IOException {
+        for (Dictionary.DictEngine engine : Dictionary.DictEngine.values()) {
+            Dictionary dict = Dictionary.getDictionary(WORDS, engine);
+            Path file = tmp.resolve("dict." + engine);
+            dict.writeSnapshot(file);
+
+            Dictionary mapped = Dictionary.getDictionary(file);
+            assertTrue(mapped.getGraph() instanceof MappedTrie);
+            assertNull(mapped.getSize());
+            assertEquals(engine == Dictionary.DictEngine.DAWG ? engine : Dictionary.DictEngine.FLAT, mapped.getEngine());
+            assertEquals(WORDS.size(), mapped.getTrieCount());
+            assertArrayEquals(dict.getWords(), mapped.getWords());
+
+            WordGraph graph = mapped.getGraph();
+            assertTrue(graph.isEnd(graph.findNode("cats")));
+            assertFalse(graph.isEnd(graph.findNode("walk")));
+            assertEquals(WordGraph.NONE, graph.findNode("catz"));
+        }
+
+        Dictionary qu = Dictionary.getDictionary(Arrays.asList("cat", "qat", "quit"), Dictionary.DictEngine.FLAT)
+                .toQuTile();
+        Path file = tmp.resolve("dict.qu");
+        qu.writeSnapshot(file);
+        Dictionary mapped = Dictionary.getDictionary(file);
+        assertTrue(mapped.isQuTile());
+        assertArrayEquals(new String[] {"cat", "quit"}, mapped.getWords());
+    }
+
+    @Test
+    void badSnapshot() throws IOException {
+        Path file = tmp.resolve("junk");
+        Files.write(file, "not a snapshot at all".getBytes());
+        assertThrows(IOException.class, () -> Dictionary.getDictionary(file));
+
+        // a good header but for the size, then for the engine
+        Path bad = tmp.resolve("bad");
+        Dictionary.getDictionary(WORDS, Dictionary.DictEngine.FLAT).writeSnapshot(bad);
+        byte[] good = Files.readAllBytes(bad);
+        for (int offset : new int[] {8, 12}) {
+            byte[] b = good.clone();
+            ByteBuffer.wrap(b).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, 99);
+            Files.write(bad, b);
+            assertThrows(IOException.class, () -> Dictionary.getDictionary(bad));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package jgc;
+
+import com.googlecode.lanterna.SGR;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScreenBufferTest {
+
+    @Test
+    void render() throws Exception {
+        DefaultVirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(20, 5));
+        ScreenBuffer screen = new ScreenBuffer(20, 5);
+        screen.putString(2, 1, "score: 10");
+        screen.enableModifiers(SGR.REVERSE);
+        screen.putString(0, 3, "TEN");
+        screen.disableModifiers(SGR.REVERSE);
+        screen.putString(18, 4, "cut off");
+        assertEquals(9 + 3 + 2, screen.render(terminal, 5, 0));    // the blank is rewritten, not skipped
+        assertEquals('s', terminal.getCharacter(2, 1).getCharacter());
+        assertEquals('0', terminal.getCharacter(10, 1).getCharacter());
+        assertTrue(terminal.getCharacter(1, 3).isReversed());
+        assertFalse(terminal.getCharacter(3, 3).isReversed());
+        assertEquals('u', terminal.getCharacter(19, 4).getCharacter());
+        assertEquals(5, terminal.getCursorPosition().getColumn());
+
+        // redrawing the same frame sends nothing
+        screen.putString(2, 1, "score: 10");
+        screen.enableModifiers(SGR.REVERSE);
+        screen.putString(0, 3, "TEN");
+        screen.disableModifiers(SGR.REVERSE);
+        assertEquals(0, screen.render(terminal, 5, 0));
+
+        // only the changed digits, and the changed modifier
+        screen.putString(2, 1, "score: 11");
+        screen.putString(0, 3, "T");
+        assertEquals(2, screen.render(terminal, 5, 0));
+        assertEquals('1', terminal.getCharacter(10, 1).getCharacter());
+        assertFalse(terminal.getCharacter(0, 3).isReversed());
+        assertTrue(terminal.getCharacter(1, 3).isReversed());
+
+        // a short gap of unchanged cells is sent again, a long one is skipped
+        screen.putString(0, 2, "a   b");
+        assertEquals(5, screen.render(terminal, 0, 0));
+        screen.putString(10, 2, "x     y");
+        assertEquals(2, screen.render(terminal, 0, 0));
+
+        screen.clear(terminal);
+        assertEquals(' ', screen.getChar(2, 1));
+        assertEquals(0, screen.render(terminal, 0, 0));
+        assertEquals(' ', terminal.getCharacter(2, 1).getCharacter());
+    }
+}
@@ -0,0 +1,104 @@
+package jgc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolutionCacheTest {
+
+    private static final char[][] BOARD = { "abc".toCharArray(), "def".toCharArray(), "ghi".toCharArray() };
+
+    private char[][] rotate(char[][] b) {
+        int n = b.length;
+        char[][] r = new char[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                r[j][n - 1 - i] = b[i][j];
+            }
+        }
+        return r;
+    }
+
+    private char[][] mirror(char[][] b) {
+        char[][] r = new char[b.length][];
+        for (int i = 0; i < b.length; i++) {
+            r[i] = new StringBuilder(new String(b[i])).reverse().toString().toCharArray();
+        }
+        return r;
+    }
+
+    @Test
+    void canonical() {
+        String key = SolutionCache.canonical(BOARD);
+        assertEquals("abcdefghi", key);
+        char[][] b = BOARD;
+        for (int i = 0; i < 4; i++) {
+            b = rotate(b);
+            assertEquals(key, SolutionCache.canonical(b));
+            assertEquals(key, SolutionCache.canonical(mirror(b)));
+        }
+        assertNotEquals(key, SolutionCache.canonical(new char[][] {
+                "bac".toCharArray(), "def".toCharArray(), "ghi".toCharArray() }));
+    }
+
+    @Test
+    void get() {
+        Dictionary dict = Dictionary.getDictionary(Arrays.asList("abe", "ceg", "ihg", "bah"));
+        BoardSolver solver = new BoardSolver(dict, 3, Boggle.Solver.BITBOARD);
+        AtomicInteger solves = new AtomicInteger();
+        SolutionCache cache = new SolutionCache(2);
+
+        Solution s = cache.get(BOARD, dict, 3, b -> { solves.incrementAndGet(); return solver.solve(b); });
+        assertEquals(Arrays.asList("abe", "ceg", "ihg"), s.getWords());
+        Solution r = cache.get(mirror(rotate(BOARD)), dict, 3, b -> { solves.incrementAndGet(); return solver.solve(b); });
+        assertSame(s, r);
+        assertEquals(1, solves.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // another word length or dictionary is another entry
+        cache.get(BOARD, dict, 4, solver::solve);
+        assertEquals(2, cache.size());
+        cache.get(BOARD, Dictionary.getDictionary(Arrays.asList("abe")), 3, solver::solve);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.getMisses());
+
+        assertThrows(IllegalArgumentException.class, () -> new SolutionCache(0));
+    }
+
+    @Test
+    void evicted() throws InterruptedException {
+        DictionaryRegistry registry = new DictionaryRegistry(1, (size, engine) ->
+                Dictionary.getDictionary(Arrays.asList("abe", "ceg", "ihg", "bah"), engine));
+        SolutionCache cache = new SolutionCache(4);
+        registry.addEvictionListener(cache);
+        List<WeakReference<Dictionary>> refs = solveOnce(registry, cache);
+        assertEquals(2, cache.size());
+
+        // over budget, so the registry lets go of the first dictionary, and the cache with it
+        registry.get(Dictionary.DictSize.M, Dictionary.DictEngine.FLAT);
+        assertEquals(1, registry.getEvictions());
+        assertEquals(0, cache.size());
+        for (int i = 0; i < 100 && refs.stream().anyMatch(r -> r.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(refs.get(0).get());
+        assertNull(refs.get(1).get());
+    }
+
+    // in its own frame, so nothing on the test's stack holds the dictionaries
+    private static List<WeakReference<Dictionary>> solveOnce(DictionaryRegistry registry, SolutionCache cache) {
+        Dictionary dict = registry.get(Dictionary.DictSize.S, Dictionary.DictEngine.FLAT);
+        Dictionary quTile = dict.toQuTile();
+        cache.get(BOARD, dict, 3, new BoardSolver(dict, 3, Boggle.Solver.BITBOARD)::solve);
+        cache.get(BOARD, quTile, 3, new BoardSolver(quTile, 3, Boggle.Solver.BITBOARD)::solve);
+        return Arrays.asList(new WeakReference<>(dict), new WeakReference<>(quTile));
+    }
+}
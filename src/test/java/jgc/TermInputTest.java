@@ -0,0 +1,77 @@
+package jgc;
+
+import com.googlecode.lanterna.input.InputProvider;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermInputTest {
+
+    // types the given keys, then blocks until released, then fails like a closed terminal
+    private static class FakeInput implements InputProvider {
+        private final String typed;
+        private final CountDownLatch release;
+        private int next;
+
+        FakeInput(String typed, CountDownLatch release) {
+            this.typed = typed;
+            this.release = release;
+        }
+
+        @Override
+        public KeyStroke pollInput() {
+            throw new UnsupportedOperationException("TermInput should only block");
+        }
+
+        @Override
+        public KeyStroke readInput() throws IOException {
+            if (next < typed.length()) {
+                return new KeyStroke(typed.charAt(next++), false, false);
+            }
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            throw new IOException("closed");
+        }
+    }
+
+    @Test
+    void take() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TermInput input = new TermInput(new FakeInput("ten", release));
+        assertEquals('t', input.take().getCharacter());
+        assertEquals('e', input.take().getCharacter());
+        assertEquals('n', input.take().getCharacter());
+        assertNull(input.poll());
+        release.countDown();
+        assertEquals(KeyType.EOF, input.take().getKeyType());
+    }
+
+    @Test
+    void interrupt() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TermInput input = new TermInput(new FakeInput("", release));
+        AtomicBoolean interrupted = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            try {
+                input.take();
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        });
+        reader.start();
+        Thread.sleep(50);
+        reader.interrupt();     // as the game timer does
+        reader.join(5000);
+        assertTrue(interrupted.get());
+        release.countDown();
+    }
+}
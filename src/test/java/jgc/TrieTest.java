@@ -74,4 +74,38 @@ class TrieTest {
         trie.insert("a");
         assertEquals(3, trie.getCount());
     }
-}
\ No newline at end of file
+
+    @Test
+    void number() {
+        Trie trie = buildSimple();
+        trie.insert("ab");
+        trie.insert("b");
+        trie.insert("ab");  // duplicates aren't counted
+        assertEquals(3, trie.getCount());
+        trie.number();
+        assertEquals(0, trie.findNode("a").getId());
+        assertEquals(0, trie.findNode("ab").getId());
+        assertEquals(1, trie.findNode("abc").getId());
+        assertEquals(2, trie.findNode("b").getId());
+        assertEquals("abc", trie.getWord(1));
+    }
+
+    @Test
+    void graft() {
+        String[] words = {"abc", "ab", "bat", "bath", "cat", "a", "azure"};
+        Trie whole = new Trie();
+        Trie a = new Trie();
+        Trie rest = new Trie();
+        for (String w : words) {
+            whole.insert(w);
+            (w.charAt(0) == 'a' ? a : rest).insert(w);
+        }
+        a.graft(rest);
+        assertArrayEquals(whole.extractWords(), a.extractWords());
+        assertEquals(whole.getCount(), a.getCount());
+        assertEquals(whole.getNodeCount(), a.getNodeCount());
+        assertTrue(a.findNode("bath").isEnd());
+
+        assertThrows(IllegalArgumentException.class, () -> a.graft(buildSimple()));
+    }
+}